@@ -4,6 +4,7 @@ import business.card.application.usecase.UploadImageUseCase;
 import business.card.domain.model.BusinessCard;
 import business.card.application.spi.BusinessCardRepository;
 import image.server.application.spi.ImageUploader;
+import image.server.domain.UploadResult;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -30,7 +31,7 @@ public class UploadImageService implements UploadImageUseCase {
         return imageUploader.upload(
                 file,
                 folder
-        ).flatMap(path -> repository.findById(businessCardId)
+        ).map(UploadResult::url).flatMap(path -> repository.findById(businessCardId)
                 .flatMap(cardOpt -> {
                     if (cardOpt.isEmpty()) {
                         return Uni.createFrom().failure(
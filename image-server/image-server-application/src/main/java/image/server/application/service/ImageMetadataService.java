@@ -0,0 +1,20 @@
+package image.server.application.service;
+
+import image.server.application.spi.ImageUploader;
+import image.server.application.usecase.ImageMetadataUseCase;
+import image.server.domain.ImageMetadata;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+@ApplicationScoped
+public class ImageMetadataService implements ImageMetadataUseCase {
+
+    @Inject
+    ImageUploader imageUploader;
+
+    @Override
+    public Uni<ImageMetadata> execute(String subPath) {
+        return imageUploader.metadata(subPath);
+    }
+}
@@ -2,6 +2,7 @@ package image.server.application.service;
 
 import image.server.application.spi.ImageUploader;
 import image.server.application.usecase.PreviewImageUseCase;
+import image.server.domain.ImageContent;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -13,7 +14,7 @@ public class PreviewImageService implements PreviewImageUseCase {
     ImageUploader imageUploader;
 
     @Override
-    public Uni<byte[]> execute(String subPath, Integer w, Integer h, boolean crop, int q, String fmt, boolean upscale) {
-        return imageUploader.serveImage(subPath, w, h, crop, q, fmt, upscale);
+    public Uni<ImageContent> execute(String subPath, Integer w, Integer h, boolean crop, Integer q, String fmt, String profile, boolean upscale, String ifNoneMatch) {
+        return imageUploader.serveImage(subPath, w, h, crop, q, fmt, profile, upscale, ifNoneMatch);
     }
 }
@@ -0,0 +1,22 @@
+package image.server.application.service;
+
+import image.server.application.spi.ImageUploader;
+import image.server.application.usecase.SrcsetImageUseCase;
+import image.server.domain.ResponsiveVariant;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.List;
+
+@ApplicationScoped
+public class SrcsetImageService implements SrcsetImageUseCase {
+
+    @Inject
+    ImageUploader imageUploader;
+
+    @Override
+    public Uni<List<ResponsiveVariant>> execute(String subPath, List<Integer> widths, Integer q, String fmt, String profile, boolean upscale) {
+        return imageUploader.generateSrcset(subPath, widths, q, fmt, profile, upscale);
+    }
+}
@@ -2,6 +2,7 @@ package image.server.application.service;
 
 import image.server.application.spi.ImageUploader;
 import image.server.application.usecase.UploadImageUseCase;
+import image.server.domain.UploadResult;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -14,7 +15,7 @@ public class UploadImageService implements UploadImageUseCase {
     ImageUploader imageUploader;
 
     @Override
-    public Uni<String> execute(FileUpload file, String folder) {
+    public Uni<UploadResult> execute(FileUpload file, String folder) {
         return imageUploader.upload(file, folder);
     }
 }
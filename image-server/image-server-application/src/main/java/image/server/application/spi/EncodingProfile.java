@@ -0,0 +1,29 @@
+package image.server.application.spi;
+
+/**
+ * Réglages d'encodage nommés, sélectionnables par requête.
+ *
+ * @param name              nom du profil (inclus dans la clé de cache)
+ * @param quality           qualité par défaut du profil (1-100), ou {@code null} pour celle du format
+ * @param progressive       JPEG progressif
+ * @param optimizeHuffman   tables de Huffman optimisées pour l'image (JPEG)
+ * @param chromaSubsampling sous-échantillonnage de la chrominance JPEG : {@code 444}, {@code 422} ou {@code 420}
+ * @param stripMetadata     n'écrit aucun segment de métadonnées optionnel (en-tête JFIF)
+ * @param pngCompression    niveau de compression deflate PNG (0-9)
+ */
+public record EncodingProfile(
+        String name,
+        Integer quality,
+        boolean progressive,
+        boolean optimizeHuffman,
+        String chromaSubsampling,
+        boolean stripMetadata,
+        int pngCompression
+) {
+
+    /**
+     * Réglages par défaut des writers ImageIO, appliqués sans profil.
+     */
+    public static final EncodingProfile DEFAULT = new EncodingProfile(
+            null, null, false, false, "420", false, 4);
+}
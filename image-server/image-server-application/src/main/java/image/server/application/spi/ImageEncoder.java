@@ -0,0 +1,61 @@
+package image.server.application.spi;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Encodeur d'un format de sortie des variantes.
+ */
+public interface ImageEncoder {
+
+    /**
+     * @return identifiant du format, tel qu'accepté par le paramètre {@code fmt} et utilisé dans la clé de cache
+     */
+    String format();
+
+    /**
+     * @return type MIME du contenu produit
+     */
+    String mediaType();
+
+    /**
+     * @return {@code true} si la qualité influe sur le résultat (format avec perte)
+     */
+    boolean lossy();
+
+    /**
+     * @return qualité (1-100) appliquée quand la requête n'en précise pas
+     */
+    int defaultQuality();
+
+    /**
+     * Encode une image.
+     *
+     * @param image   image à encoder
+     * @param quality qualité 1-100 (ignorée par les formats sans perte)
+     * @param profile réglages d'encodage ; ceux qui ne concernent pas le format sont ignorés
+     * @param out     flux de sortie, non fermé par l'encodeur
+     * @throws IOException si l'encodage échoue
+     */
+    void encode(BufferedImage image, int quality, EncodingProfile profile, OutputStream out) throws IOException;
+
+    /**
+     * Encode une image directement dans un fichier, au fil de l'encodage :
+     * le résultat n'est jamais entièrement retenu en mémoire.
+     *
+     * @param image   image à encoder
+     * @param quality qualité 1-100 (ignorée par les formats sans perte)
+     * @param profile réglages d'encodage
+     * @param target  fichier de destination, créé ou remplacé
+     * @throws IOException si l'encodage ou l'écriture échoue
+     */
+    default void encode(BufferedImage image, int quality, EncodingProfile profile, Path target) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+            encode(image, quality, profile, out);
+        }
+    }
+}
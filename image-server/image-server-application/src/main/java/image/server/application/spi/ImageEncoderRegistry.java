@@ -0,0 +1,62 @@
+package image.server.application.spi;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Registre des formats de sortie disponibles pour les variantes.
+ */
+public interface ImageEncoderRegistry {
+
+    /**
+     * Valeur du paramètre {@code fmt} demandant une négociation à partir de l'en-tête {@code Accept}.
+     */
+    String AUTO = "auto";
+
+    /**
+     * @return les encodeurs disponibles
+     */
+    List<ImageEncoder> available();
+
+    /**
+     * @param format identifiant de format (insensible à la casse, {@code jpeg} équivaut à {@code jpg})
+     * @return l'encodeur du format, s'il est disponible
+     */
+    Optional<ImageEncoder> forFormat(String format);
+
+    /**
+     * @return l'encodeur utilisé pour un format inconnu ou indisponible
+     */
+    ImageEncoder defaultEncoder();
+
+    /**
+     * Choisit le format le plus compact accepté par le client.
+     *
+     * @param accept valeur de l'en-tête {@code Accept} (peut être null)
+     * @return l'encodeur négocié, ou {@link #defaultEncoder()} si aucun format préféré n'est accepté
+     */
+    ImageEncoder negotiate(String accept);
+
+    /**
+     * @param name nom du profil d'encodage
+     * @return le profil, s'il est configuré
+     */
+    Optional<EncodingProfile> profile(String name);
+
+    /**
+     * @return le profil appliqué quand la requête n'en précise pas
+     */
+    EncodingProfile defaultProfile();
+
+    /**
+     * Résout la valeur du paramètre {@code fmt}, y compris {@link #AUTO}.
+     *
+     * @param format format demandé (peut être null)
+     * @param accept valeur de l'en-tête {@code Accept} (peut être null)
+     * @return l'encodeur à utiliser
+     */
+    default ImageEncoder resolve(String format, String accept) {
+        if (AUTO.equalsIgnoreCase(format)) return negotiate(accept);
+        return format == null ? defaultEncoder() : forFormat(format).orElse(defaultEncoder());
+    }
+}
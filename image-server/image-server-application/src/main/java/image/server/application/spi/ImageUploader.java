@@ -1,22 +1,65 @@
 package image.server.application.spi;
 
+import image.server.domain.ImageContent;
+import image.server.domain.ImageMetadata;
+import image.server.domain.ResponsiveVariant;
+import image.server.domain.UploadResult;
 import io.smallrye.mutiny.Uni;
 import org.jboss.resteasy.reactive.multipart.FileUpload;
 
+import java.util.List;
+
 
 public interface ImageUploader {
-     Uni<String> upload(
+    /**
+     * Enregistre un original et calcule son aperçu flou (BlurHash).
+     *
+     * @return l'URL relative de l'image et son aperçu
+     */
+     Uni<UploadResult> upload(
             FileUpload file,
             String folder
     );
-    Uni<byte[]>  serveImage(
+    /**
+     * Résout l'image (originale ou variante) à servir.
+     * <p>
+     * Les fichiers présents sur disque sont renvoyés sous forme de chemin afin d'être
+     * transmis sans copie en mémoire ; seules les variantes déjà en mémoire sont renvoyées en octets.
+     * <p>
+     * {@code ifNoneMatch} (en-tête de la requête, peut être {@code null}) permet de ne pas lire
+     * une variante disque que le client possède déjà : elle sera répondue en {@code 304}.
+     */
+    Uni<ImageContent> serveImage(
             String subPath,
             Integer w,
             Integer h,
             boolean crop,
-            int q,
+            Integer q,
+            String fmt,
+            String profile,
+            boolean upscale,
+            String ifNoneMatch
+    );
+    /**
+     * Génère en une seule passe les variantes en largeur d'un jeu responsive (srcset).
+     * <p>
+     * La source est décodée au plus une fois ; chaque variante est ensuite mise en cache
+     * sous la même clé qu'une lecture {@code ?w=<largeur>} avec les mêmes paramètres.
+     *
+     * @return les variantes, de la plus large à la plus étroite
+     */
+    Uni<List<ResponsiveVariant>> generateSrcset(
+            String subPath,
+            List<Integer> widths,
+            Integer q,
             String fmt,
+            String profile,
             boolean upscale
     );
+    /**
+     * Lit les dimensions et l'aperçu flou d'un original, sans transmettre l'image.
+     * L'aperçu d'un original antérieur à son calcul à l'upload est calculé puis conservé.
+     */
+    Uni<ImageMetadata> metadata(String subPath);
     Uni<Void> deleteImage(String subPath);
 }
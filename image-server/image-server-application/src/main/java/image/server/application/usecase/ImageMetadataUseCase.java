@@ -0,0 +1,8 @@
+package image.server.application.usecase;
+
+import image.server.domain.ImageMetadata;
+import io.smallrye.mutiny.Uni;
+
+public interface ImageMetadataUseCase {
+    Uni<ImageMetadata> execute(String subPath);
+}
@@ -1,15 +1,18 @@
 package image.server.application.usecase;
 
+import image.server.domain.ImageContent;
 import io.smallrye.mutiny.Uni;
 
 public interface PreviewImageUseCase {
-    Uni<byte[]> execute(
+    Uni<ImageContent> execute(
             String subPath,
             Integer w,
             Integer h,
             boolean crop,
-            int q,
+            Integer q,
             String fmt,
-            boolean upscale
+            String profile,
+            boolean upscale,
+            String ifNoneMatch
     );
 }
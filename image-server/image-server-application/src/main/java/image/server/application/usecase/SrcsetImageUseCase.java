@@ -0,0 +1,17 @@
+package image.server.application.usecase;
+
+import image.server.domain.ResponsiveVariant;
+import io.smallrye.mutiny.Uni;
+
+import java.util.List;
+
+public interface SrcsetImageUseCase {
+    Uni<List<ResponsiveVariant>> execute(
+            String subPath,
+            List<Integer> widths,
+            Integer q,
+            String fmt,
+            String profile,
+            boolean upscale
+    );
+}
@@ -1,10 +1,11 @@
 package image.server.application.usecase;
 
+import image.server.domain.UploadResult;
 import io.smallrye.mutiny.Uni;
 import org.jboss.resteasy.reactive.multipart.FileUpload;
 
 public interface UploadImageUseCase {
-    Uni<String> execute(
+    Uni<UploadResult> execute(
             FileUpload file,
             String folder
     );
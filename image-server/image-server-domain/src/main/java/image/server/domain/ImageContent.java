@@ -0,0 +1,32 @@
+package image.server.domain;
+
+import java.nio.file.Path;
+
+/**
+ * Contenu d'une image à servir.
+ * <p>
+ * Le contenu est soit un fichier sur disque ({@code file}), transmis tel quel sans copie
+ * en mémoire, soit un tableau d'octets déjà présent en mémoire ({@code bytes}).
+ *
+ * @param file         fichier à transmettre, ou {@code null} si le contenu est en mémoire
+ * @param bytes        contenu en mémoire, ou {@code null} si le contenu est un fichier
+ * @param length       taille du contenu en octets
+ * @param lastModified date de dernière modification (epoch millis)
+ * @param etag         validateur HTTP (sans guillemets), calculé sans lire le contenu
+ */
+public record ImageContent(
+        Path file, byte[] bytes, long length, long lastModified, String etag
+) {
+
+    public static ImageContent ofFile(Path file, long length, long lastModified, String etag) {
+        return new ImageContent(file, null, length, lastModified, etag);
+    }
+
+    public static ImageContent ofBytes(byte[] bytes, long lastModified, String etag) {
+        return new ImageContent(null, bytes, bytes.length, lastModified, etag);
+    }
+
+    public boolean isFile() {
+        return file != null;
+    }
+}
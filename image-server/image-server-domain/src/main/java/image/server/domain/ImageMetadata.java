@@ -0,0 +1,14 @@
+package image.server.domain;
+
+/**
+ * Métadonnées légères d'un original, servies sans transmettre l'image.
+ *
+ * @param url         chemin relatif de l'image
+ * @param width       largeur affichée en pixels (orientation EXIF appliquée)
+ * @param height      hauteur affichée en pixels
+ * @param placeholder aperçu flou (BlurHash), ou {@code null} si indisponible
+ */
+public record ImageMetadata(
+        String url, int width, int height, String placeholder
+) {
+}
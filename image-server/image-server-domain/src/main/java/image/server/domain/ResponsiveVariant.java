@@ -0,0 +1,13 @@
+package image.server.domain;
+
+/**
+ * Variante d'un jeu responsive (srcset), présente dans le cache.
+ *
+ * @param width  largeur effective en pixels
+ * @param height hauteur effective en pixels
+ * @param length taille en octets
+ */
+public record ResponsiveVariant(
+        int width, int height, long length
+) {
+}
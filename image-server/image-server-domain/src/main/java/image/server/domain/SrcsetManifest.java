@@ -0,0 +1,25 @@
+package image.server.domain;
+
+import java.util.List;
+
+/**
+ * Manifeste d'un jeu de variantes responsive.
+ *
+ * @param srcset     valeur prête à l'emploi pour l'attribut {@code srcset}
+ * @param candidates variantes, de la plus large à la plus étroite
+ */
+public record SrcsetManifest(
+        String srcset, List<Candidate> candidates
+) {
+
+    /**
+     * @param url    URL de la variante
+     * @param width  largeur en pixels
+     * @param height hauteur en pixels
+     * @param length taille en octets
+     */
+    public record Candidate(
+            String url, int width, int height, long length
+    ) {
+    }
+}
@@ -1,7 +1,13 @@
 package image.server.domain;
 
+/**
+ * Résultat d'un upload.
+ *
+ * @param url         chemin relatif de l'image
+ * @param placeholder aperçu flou (BlurHash) à afficher en attendant l'image, ou {@code null}
+ * @param error       message d'erreur, ou {@code null}
+ */
 public record UploadResult(
-        String url, String error
+        String url, String placeholder, String error
 ) {
 }
-
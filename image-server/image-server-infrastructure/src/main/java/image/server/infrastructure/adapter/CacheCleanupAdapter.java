@@ -1,128 +1,116 @@
 package image.server.infrastructure.adapter;
 
+import image.server.infrastructure.cache.VariantIndex;
+import image.server.infrastructure.cache.VariantMemoryCache;
 import image.server.infrastructure.config.ImageConfig;
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
 
 import java.io.IOException;
 import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.List;
 
 /**
  * Service de maintenance du cache d'images.
  * <p>
- * Il supprime les fichiers expirés selon la politique de rétention,
- * puis retire les répertoires devenus vides.
+ * Deux politiques s'appliquent, toutes deux pilotées par l'index des variantes
+ * (aucun parcours du disque) :
+ * - rétention : les variantes écrites depuis plus de {@code cacheDays} jours sont supprimées,
+ * - budget : au-delà du seuil haut du budget disque, les variantes les moins récemment
+ *   utilisées sont supprimées jusqu'au seuil bas.
+ * Les variantes supprimées sont aussi retirées du cache mémoire, sous toutes les clés qui y mènent.
+ * Les dossiers de shard (256 × 256, soit 65 536 dossiers feuilles au plus) sont conservés
+ * même vides : une génération concurrente peut y créer son fichier temporaire à tout moment.
+ * <p>
+ * Instancié au démarrage afin qu'un budget mal configuré arrête l'application.
  */
+@Startup
 @ApplicationScoped
 public class CacheCleanupAdapter {
     private static final Logger LOG = Logger.getLogger(CacheCleanupAdapter.class);
+
     @Inject
     ImageConfig config;
 
+    @Inject
+    VariantIndex variantIndex;
+
+    @Inject
+    VariantMemoryCache memoryCache;
+
+    @PostConstruct
+    void init() {
+        int high = config.cacheHighWatermark();
+        int low = config.cacheLowWatermark();
+        if (low <= 0 || low >= high || high > 100)
+            throw new IllegalArgumentException("Invalid cache watermarks (expected 0 < low < high <= 100): low="
+                    + low + ", high=" + high);
+    }
+
     /**
-     * Lance un cycle complet de nettoyage du cache.
+     * Lance un cycle de nettoyage par rétention.
      * <p>
-     * Les fichiers dont la date de modification est antérieure au seuil
-     * (`now - cacheDays`) sont supprimés.
+     * Les variantes dont la date d'écriture est antérieure au seuil
+     * (`now - cacheDays`) sont supprimées.
      * Un bilan (supprimés / erreurs) est journalisé à la fin.
      */
     public void evictImageExpired(){
-        Path cacheRoot = Path.of(config.cacheDir());
-
-        if (!Files.exists(cacheRoot)) {
-            LOG.debug("Cache directory does not exist, skipping cleanup.");
-            return;
-        }
-
-        Instant cutoff = Instant.now().minus(config.cacheDays(), ChronoUnit.DAYS);
-        AtomicInteger deleted = new AtomicInteger(0);
-        AtomicInteger errors  = new AtomicInteger(0);
-
-        try (var stream = Files.walk(cacheRoot)) {
-            stream
-                    .filter(Files::isRegularFile)
-                    .filter(path -> isOlderThan(path, cutoff))
-                    .forEach(path -> {
-                        try {
-                            Files.delete(path);
-                            deleted.incrementAndGet();
-                            LOG.debugf("Deleted expired cache file: %s", path);
-                        } catch (IOException e) {
-                            errors.incrementAndGet();
-                            LOG.warnf("Failed to delete cache file %s: %s", path, e.getMessage());
-                        }
-                    });
-
-            // Supprimer les dossiers vides laissés après nettoyage
-            deleteEmptyDirectories(cacheRoot);
+        long cutoff = Instant.now().minus(config.cacheDays(), ChronoUnit.DAYS).toEpochMilli();
+        int[] result = deleteVariants(variantIndex.pollWrittenBefore(cutoff));
 
-        } catch (IOException e) {
-            LOG.errorf("Cache cleanup failed: %s", e.getMessage());
-        }
-
-        LOG.infof("Cache cleanup done — %d file(s) deleted, %d error(s).",
-                deleted.get(), errors.get());
+        LOG.infof("Cache cleanup done — %d file(s) deleted, %d error(s).", result[0], result[1]);
     }
 
     /**
-     * Indique si un fichier est plus ancien que la date limite.
-     *
-     * @param path fichier à évaluer
-     * @param cutoff date limite d'expiration
-     * @return true si le fichier est expiré
+     * Applique le budget disque du cache.
+     * <p>
+     * Sans effet tant que le total indexé reste sous le seuil haut
+     * ({@code cacheMaxBytes × cacheHighWatermark %}) ; sinon, les variantes les moins
+     * récemment utilisées sont supprimées jusqu'au seuil bas.
      */
-    private boolean isOlderThan(Path path, Instant cutoff) {
-        try {
-            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
-            return attrs.lastModifiedTime().toInstant().isBefore(cutoff);
-        } catch (IOException e) {
-            LOG.warnf("Cannot read attributes of %s: %s", path, e.getMessage());
-            return false;
-        }
-    }
+    public void evictOverBudget() {
+        long maxBytes = config.cacheMaxBytes();
+        if (maxBytes <= 0) return;
 
-    /**
-     * Parcourt l'arborescence en bottom-up et supprime les dossiers vides,
-     * sauf la racine du cache elle-même.
-     *
-     * @param root racine du cache à conserver
-     * @throws IOException si l'exploration du système de fichiers échoue
-     */
-    private void deleteEmptyDirectories(Path root) throws IOException {
-        try (var stream = Files.walk(root)) {
-            stream
-                    .filter(Files::isDirectory)
-                    .filter(path -> !path.equals(root))
-                    .sorted((a, b) -> b.compareTo(a)) // bottom-up
-                    .forEach(dir -> {
-                        try {
-                            if (isDirectoryEmpty(dir)) {
-                                Files.delete(dir);
-                                LOG.debugf("Removed empty cache directory: %s", dir);
-                            }
-                        } catch (IOException e) {
-                            LOG.warnf("Cannot remove directory %s: %s", dir, e.getMessage());
-                        }
-                    });
-        }
+        long highWatermark = maxBytes / 100 * config.cacheHighWatermark();
+        long lowWatermark  = maxBytes / 100 * config.cacheLowWatermark();
+        long before = variantIndex.totalBytes();
+        if (before <= highWatermark) return;
+
+        int[] result = deleteVariants(variantIndex.pollLeastRecentlyUsed(lowWatermark));
+
+        LOG.infof("Cache budget eviction done — %d → %d byte(s), %d file(s) deleted, %d error(s).",
+                before, variantIndex.totalBytes(), result[0], result[1]);
     }
 
     /**
-     * Vérifie si un dossier ne contient aucune entrée.
+     * Supprime du disque des variantes déjà retirées de l'index.
+     * Une variante dont la suppression échoue est réinscrite dans l'index, pour rester
+     * comptée dans le budget et être retentée au cycle suivant.
      *
-     * @param dir dossier à inspecter
-     * @return true si le dossier est vide
-     * @throws IOException si la lecture du dossier échoue
+     * @param variants variantes à supprimer
+     * @return nombre de fichiers supprimés et nombre d'erreurs
      */
-    private boolean isDirectoryEmpty(Path dir) throws IOException {
-        try (var entries = Files.newDirectoryStream(dir)) {
-            return !entries.iterator().hasNext();
+    private int[] deleteVariants(List<VariantIndex.Entry> variants) {
+        int deleted = 0;
+        int errors  = 0;
+        for (VariantIndex.Entry variant : variants) {
+            try {
+                Files.deleteIfExists(variant.path());
+                memoryCache.invalidateFile(variant.path());
+                deleted++;
+                LOG.debugf("Deleted cache file: %s", variant.path());
+            } catch (IOException e) {
+                errors++;
+                variantIndex.register(variant.path(), variant.size(), variant.lastModified());
+                LOG.warnf("Failed to delete cache file %s: %s", variant.path(), e.getMessage());
+            }
         }
+        return new int[]{deleted, errors};
     }
 }
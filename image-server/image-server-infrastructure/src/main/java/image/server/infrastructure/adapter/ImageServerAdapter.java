@@ -1,30 +1,64 @@
 package image.server.infrastructure.adapter;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import image.server.application.spi.EncodingProfile;
+import image.server.application.spi.ImageEncoder;
+import image.server.application.spi.ImageEncoderRegistry;
 import image.server.application.spi.ImageUploader;
+import image.server.domain.ImageContent;
+import image.server.domain.ImageMetadata;
+import image.server.domain.ResponsiveVariant;
+import image.server.domain.UploadResult;
+import image.server.infrastructure.cache.CacheLayout;
+import image.server.infrastructure.cache.MissingSourceCache;
+import image.server.infrastructure.cache.SingleFlight;
+import image.server.infrastructure.cache.VariantIndex;
+import image.server.infrastructure.cache.VariantMemoryCache;
 import image.server.infrastructure.config.ImageConfig;
+import image.server.infrastructure.config.SizeLadder;
+import image.server.infrastructure.config.VariantPreset;
+import image.server.infrastructure.imaging.BlurHash;
+import image.server.infrastructure.imaging.ImageProbe;
+import image.server.infrastructure.imaging.ResamplingTier;
+import image.server.infrastructure.imaging.TiledLanczosResizer;
+import image.server.infrastructure.imaging.SourceImage;
+import image.server.infrastructure.storage.BlobStore;
 import io.smallrye.mutiny.Uni;
-import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.ForbiddenException;
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.NotSupportedException;
+import jakarta.ws.rs.WebApplicationException;
 import net.coobird.thumbnailator.Thumbnails;
+import net.coobird.thumbnailator.filters.ImageFilter;
 import net.coobird.thumbnailator.geometry.Positions;
+import net.coobird.thumbnailator.resizers.Resizer;
 import org.jboss.logging.Logger;
 import org.jboss.resteasy.reactive.multipart.FileUpload;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
-import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 
 /**
@@ -34,7 +68,11 @@ import java.util.UUID;
  * - la validation des entrées (taille, format, dimensions, chemins),
  * - l'écriture des originaux sur disque,
  * - la génération et la mise en cache de variantes redimensionnées,
+ * - le calcul des métadonnées des originaux (dimensions, aperçu BlurHash),
  * - la suppression d'un original et de ses dérivés de cache.
+ * <p>
+ * Les entrées/sorties (upload, lecture des caches, suppression) s'exécutent sur des threads virtuels ;
+ * seuls les transcodages passent par le pool borné {@link TranscodingExecutor}.
  */
 @ApplicationScoped
 public class ImageServerAdapter implements ImageUploader {
@@ -44,21 +82,146 @@ public class ImageServerAdapter implements ImageUploader {
     @Inject
     ImageConfig config;
 
+    @Inject
+    VariantMemoryCache memoryCache;
+
+    @Inject
+    VariantPresetPipeline presetPipeline;
+
+    @Inject
+    VariantIndex variantIndex;
+
+    @Inject
+    TranscodingExecutor transcoder;
+
+    @Inject
+    BlobStore blobStore;
+
+    @Inject
+    ImageEncoderRegistry encoders;
+
+    @Inject
+    SizeLadder sizeLadder;
+
+    @Inject
+    MissingSourceCache missingSources;
+
+    @Inject
+    TiledLanczosResizer tiledResizer;
+
+    /** Entrées/sorties bloquantes : un thread virtuel par opération. */
+    private final ExecutorService ioExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("image-io-", 0).factory());
+
+    /**
+     * Générations de variantes en cours, pour qu'une rafale de requêtes identiques
+     * ne déclenche qu'un seul transcodage.
+     */
+    private final SingleFlight<ImageContent> variantFlights = new SingleFlight<>();
+
+    /** Nombre maximal de largeurs par jeu responsive. */
+    static final int MAX_SRCSET_WIDTHS = 16;
+
+    /** Nombre maximal de chemins logiques dont la base de clé de cache est mémorisée. */
+    private static final int MAX_CACHE_KEY_BASES = 100_000;
+
+    /**
+     * Base de clé de cache des originaux adressés par contenu, par chemin logique : un lien ne change
+     * pas de blob tant qu'il existe, la résolution n'accède donc au disque qu'une fois par chemin.
+     */
+    private final Cache<String, String> cacheKeyBases = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHE_KEY_BASES)
+            .build();
+
+    /** Suffixe du fichier de métadonnées rangé à côté de chaque original. */
+    static final String METADATA_SUFFIX = ".meta";
+
+    /** Plus grand côté de la vignette dont est tiré l'aperçu BlurHash. */
+    private static final int PLACEHOLDER_SIZE = 32;
+
     private volatile Path uploadBaseDir;
     private volatile Path cacheBaseDir;
+    /** Presets analysés au démarrage. */
+    private List<VariantPreset> variantPresets = List.of();
+
+    /** Niveau de rééchantillonnage imposé par {@code image.resampling}, {@code null} en mode {@code auto}. */
+    private ResamplingTier resamplingTier;
 
     // -------------------------------------------------------------------------
     // Initialisation
     // -------------------------------------------------------------------------
 
     /**
-     * Crée les répertoires utilisés par le service si nécessaire.
+     * Analyse et valide la configuration au démarrage : une valeur invalide empêche
+     * le service de démarrer au lieu de faire échouer les uploads.
+     *
+     * @throws IllegalArgumentException si un preset est mal formé ou dépasse {@code max-dimension},
+     *                                  ou si {@code image.resampling} est inconnu
+     */
+    @PostConstruct
+    void init() {
+        resamplingTier = ResamplingTier.parse(config.resampling());
+
+        variantPresets = config.variantPresets()
+                .map(specs -> specs.stream().map(VariantPreset::parse).toList())
+                .orElse(List.of());
+        for (VariantPreset preset : variantPresets) {
+            if ((preset.width() != null && preset.width() > config.maxDimension())
+                    || (preset.height() != null && preset.height() > config.maxDimension()))
+                throw new IllegalArgumentException("Variant preset exceeds max-dimension (" + config.maxDimension() + "): " + preset);
+        }
+        if (!variantPresets.isEmpty()) {
+            LOG.infof("Variant presets: %s", variantPresets);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ioExecutor.shutdownNow();
+    }
+
+    /**
+     * Crée les répertoires utilisés par le service si nécessaire,
+     * puis range dans leur sous-dossier les variantes d'un cache à plat (ancien format)
+     * et reconstruit l'index des variantes.
      *
      * @throws IOException si la création des dossiers échoue
      */
     public void ensureDirectories() throws IOException {
         uploadBaseDir = ensureWritableDirectory(config.uploadBaseDir(), "uploads");
         cacheBaseDir = ensureWritableDirectory(config.cacheDir(), "cache");
+        migrateFlatCache(cacheBaseDir);
+        variantIndex.rebuild(cacheBaseDir);
+    }
+
+    /**
+     * Migration ponctuelle : les variantes stockées directement à la racine du cache
+     * sont déplacées dans leur dossier de shard (voir {@link CacheLayout}).
+     * Seule la racine est listée ; une fois vide, la migration ne coûte plus rien.
+     */
+    private void migrateFlatCache(Path cacheBase) {
+        int moved = 0;
+        try (var entries = Files.newDirectoryStream(cacheBase, Files::isRegularFile)) {
+            for (Path entry : entries) {
+                String fileName = entry.getFileName().toString();
+                String keyBase  = CacheLayout.keyBaseOf(fileName);
+                if (keyBase == null) continue;
+
+                Path target = CacheLayout.resolve(cacheBase, keyBase, fileName);
+                try {
+                    Files.createDirectories(target.getParent());
+                    Files.move(entry, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    moved++;
+                } catch (IOException e) {
+                    LOG.warnf(e, "Could not migrate cache file: %s", entry);
+                }
+            }
+        } catch (IOException e) {
+            LOG.warnf(e, "Cache layout migration failed: %s", cacheBase);
+        }
+        if (moved > 0) {
+            LOG.infof("Cache layout migration done — %d variant(s) moved to sharded directories.", moved);
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -72,15 +235,34 @@ public class ImageServerAdapter implements ImageUploader {
      * - fichier obligatoire et non vide,
      * - taille maximale via la configuration,
      * - extension dans la liste autorisée (et présente),
+     * - contenu conforme à l'extension (octets magiques), dimensions lues dans l'en-tête
+     *   et bornées par {@code max-source-dimension} / {@code max-source-pixels}, sans décodage,
      * - dossier cible assaini pour éviter la traversée de chemins.
+     * <p>
+     * En mode {@code image.content-addressed}, le contenu est stocké une seule fois par hash
+     * (voir {@link BlobStore}) et le chemin renvoyé est un lien vers ce blob.
+     * <p>
+     * Les dimensions de l'original et son aperçu BlurHash ({@code image.placeholders}) sont ensuite
+     * calculés sur le pool de transcodage, puis enregistrés dans son fichier de métadonnées ;
+     * l'aperçu est renvoyé avec l'URL. Un échec de ce calcul (pool saturé compris) n'empêche pas
+     * l'upload : l'aperçu sera calculé à la première lecture de {@code /_meta}.
+     * <p>
+     * Les variantes configurées dans {@code image.variant-presets} sont ensuite générées
+     * en arrière-plan, sans retarder la réponse.
      *
      * @param file   fichier multipart reçu
      * @param folder sous-dossier logique de destination (optionnel, peut être null)
-     * @return réponse HTTP 201 avec l'URL relative en cas de succès, 400 sinon
+     * @return l'URL relative et l'aperçu en cas de succès, 400 sinon
      */
     @Override
-    public Uni<String> upload(FileUpload file, String folder) {
-        return runBlocking(() -> uploadBlocking(file, folder));
+    public Uni<UploadResult> upload(FileUpload file, String folder) {
+        return runBlocking(() -> uploadBlocking(file, folder))
+                .chain(url -> transcoder.submit(() -> describeSource(url, resolveSource(url)))
+                        .onFailure().recoverWithItem(e -> {
+                            LOG.warnf(e, "Could not compute image metadata: %s", url);
+                            return null;
+                        })
+                        .map(metadata -> new UploadResult(url, metadata != null ? metadata.placeholder() : null, null)));
     }
 
     private String uploadBlocking(FileUpload file, String folder) throws IOException {
@@ -102,9 +284,11 @@ public class ImageServerAdapter implements ImageUploader {
         if (!config.allowedExtensions().contains(ext.toLowerCase()))
             throw new BadRequestException("Unsupported type: " + ext + ". Allowed: " + config.allowedExtensions());
 
+        validateSource(file.uploadedFile(), ext);
+
         // CORRECTIF : folder peut être null
         folder = sanitizeFolder(folder);
-        if (folder == null)
+        if (folder == null || BlobStore.isReserved(folder))
             throw new BadRequestException("Invalid folder path.");
 
         // --- Stockage ---
@@ -116,14 +300,76 @@ public class ImageServerAdapter implements ImageUploader {
         Path targetFile = targetDir.resolve(storedName);
 
         Files.createDirectories(targetDir);
-        Files.copy(file.uploadedFile(), targetFile, StandardCopyOption.REPLACE_EXISTING);
+        if (config.contentAddressed()) {
+            blobStore.store(uploadBase, file.uploadedFile(), targetFile);
+        } else {
+            Files.copy(file.uploadedFile(), targetFile, StandardCopyOption.REPLACE_EXISTING);
+        }
 
         String url = folder.isBlank() ? storedName : folder + "/" + storedName;
+        missingSources.invalidate(url);
+        cacheKeyBases.invalidate(targetFile.toString());
         LOG.infof("Image uploaded: %s", url);
 
+        // La pré-génération est facultative : son échec ne doit pas faire échouer un upload déjà stocké.
+        try {
+            schedulePresets(url);
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "Could not schedule variant presets: %s", url);
+        }
         return url;
     }
 
+    /**
+     * Vérifie le contenu d'un upload à partir de son seul en-tête.
+     * <p>
+     * Un fichier tronqué, au format différent de son extension ou trop grand une fois décodé
+     * est refusé ici, avant d'atteindre le redimensionnement.
+     *
+     * @param upload fichier reçu
+     * @param ext    extension annoncée
+     */
+    private void validateSource(Path upload, String ext) throws IOException {
+        ImageProbe probe = ImageProbe.probe(upload);
+        if (probe == null)
+            throw new BadRequestException("Unrecognized or corrupted image.");
+        if (!probe.format().matchesExtension(ext))
+            throw new BadRequestException("File content (" + probe.format() + ") does not match extension: " + ext);
+        checkSourceSize(probe.width(), probe.height());
+    }
+
+    /**
+     * Refuse une image source au-delà des limites configurées.
+     */
+    private void checkSourceSize(int width, int height) {
+        if (width > config.maxSourceDimension() || height > config.maxSourceDimension())
+            throw new BadRequestException("Image dimensions exceed " + config.maxSourceDimension() + " px.");
+        if ((long) width * height > config.maxSourcePixels())
+            throw new BadRequestException("Image exceeds " + config.maxSourcePixels() + " pixels.");
+    }
+
+    /**
+     * Planifie la génération des presets pour un original fraîchement stocké.
+     * <p>
+     * Chaque preset suit le chemin d'une lecture : regroupé avec les requêtes identiques en cours,
+     * transcodé sur le pool borné. Le thread de la file de pré-génération ne fait qu'attendre
+     * chaque variante ; un pool saturé abandonne les presets restants.
+     */
+    private void schedulePresets(String url) {
+        List<VariantPreset> presets = variantPresets;
+        if (presets.isEmpty()) return;
+
+        presetPipeline.submit(url, () -> {
+            for (VariantPreset preset : presets) {
+                // Format, qualité et profil par défaut : mêmes clés de cache qu'une requête sans fmt, q ni profile.
+                serveVariant(variantRequest(url, preset.width(), preset.height(), preset.crop(),
+                        null, null, null, false), null)
+                        .await().indefinitely();
+            }
+            LOG.debugf("Variant presets generated: %s", url);
+        });
+    }
+
     // -------------------------------------------------------------------------
     // Serve
     // -------------------------------------------------------------------------
@@ -133,7 +379,18 @@ public class ImageServerAdapter implements ImageUploader {
      * <p>
      * Comportement :
      * - sans {@code w}/{@code h} : renvoie l'original,
-     * - avec {@code w}/{@code h} : cherche en cache, sinon génère puis persiste la variante.
+     * - avec {@code w}/{@code h} : cherche en cache mémoire, puis en cache disque,
+     *   sinon génère puis persiste la variante.
+     * <p>
+     * Les requêtes concurrentes portant sur la même variante sont regroupées :
+     * une seule recherche/génération est exécutée et son résultat est partagé.
+     * <p>
+     * La recherche en cache s'exécute sur un thread virtuel ; seule une variante absente
+     * est confiée au pool de transcodage, qui répond {@code 503} lorsqu'il est saturé.
+     * <p>
+     * Les fichiers sur disque (original, variante en cache) sont renvoyés par chemin
+     * pour être transmis sans copie ; seules les petites variantes admises dans le
+     * cache mémoire sont renvoyées en octets.
      * <p>
      * Sécurité :
      * - bloque les chemins invalides ({@code ..}),
@@ -143,79 +400,165 @@ public class ImageServerAdapter implements ImageUploader {
      * @param w       largeur cible en pixels (optionnelle)
      * @param h       hauteur cible en pixels (optionnelle)
      * @param crop    active le recadrage centré si largeur et hauteur sont fournies
-     * @param q       qualité de sortie (normalisée entre 1 et 100)
-     * @param fmt     format de sortie demandé (normalisé en jpg/png/webp)
+     * @param q       qualité de sortie (normalisée entre 1 et 100, ignorée pour un format sans perte) ;
+     *                à défaut, celle du profil puis celle du format
+     * @param fmt     format de sortie demandé, parmi les formats du registre d'encodeurs
+     *                (un format inconnu ou indisponible est rabattu sur le format par défaut)
+     * @param profile profil d'encodage ({@code image.profiles}) ; à défaut, le profil par défaut
      * @param upscale autorise ou non l'agrandissement au-delà de la taille source
-     * @return réponse HTTP binaire de l'image, avec headers de cache
+     * @param ifNoneMatch en-tête {@code If-None-Match} de la requête (peut être {@code null}) :
+     *                une variante disque dont l'ETag y figure est renvoyée par chemin, sans lecture
+     *                ni promotion en mémoire, puisque la réponse sera un {@code 304}
+     * @return contenu de l'image (fichier ou octets)
      */
     @Override
-    public Uni<byte[]> serveImage(
+    public Uni<ImageContent> serveImage(
             String subPath,
             Integer w,
             Integer h,
             boolean crop,
-            int q,
+            Integer q,
             String fmt,
-            boolean upscale
+            String profile,
+            boolean upscale,
+            String ifNoneMatch
     ) {
-        return runBlocking(() -> serveImageBlocking(subPath, w, h, crop, q, fmt, upscale));
+        if (missingSources.isMissing(subPath)) {
+            return Uni.createFrom().failure(new NotFoundException());
+        }
+        if (w == null && h == null) {
+            return runBlocking(() -> serveOriginalBlocking(subPath));
+        }
+        VariantRequest variant;
+        try {
+            variant = variantRequest(subPath, w, h, crop, q, fmt, profile, upscale);
+        } catch (BadRequestException e) {
+            return Uni.createFrom().failure(e);
+        }
+        return serveVariant(variant, ifNoneMatch);
     }
 
-    private byte[] serveImageBlocking(
+    /**
+     * Cherche une variante en cache sur un thread virtuel, sinon la génère sur le pool de transcodage,
+     * en regroupant les requêtes identiques.
+     */
+    private Uni<ImageContent> serveVariant(VariantRequest variant, String ifNoneMatch) {
+        return variantFlights.execute(
+                buildFlightKey(variant),
+                () -> runBlocking(() -> findCachedVariant(variant, ifNoneMatch))
+                        .chain(cached -> cached != null
+                                ? Uni.createFrom().item(cached)
+                                : transcoder.submit(() -> generateVariant(variant)))
+        );
+    }
+
+    /**
+     * Variante demandée, paramètres normalisés.
+     *
+     * @param w       largeur demandée, alignée sur l'échelle de tailles
+     * @param h       hauteur demandée, alignée sur l'échelle de tailles
+     * @param quality qualité effective (100 pour un format sans perte)
+     * @param encoder format de sortie
+     * @param profile réglages d'encodage
+     */
+    private record VariantRequest(
             String subPath,
             Integer w,
             Integer h,
             boolean crop,
-            int q,
-            String fmt,
+            int quality,
+            ImageEncoder encoder,
+            EncodingProfile profile,
             boolean upscale
-    ) throws IOException {
+    ) {
+    }
 
-        // --- Validation des paramètres ---
-        if (subPath == null || subPath.isBlank() || subPath.contains("..")) {
-            LOG.warnf("Rejected path traversal attempt: %s", subPath);
-            throw new BadRequestException();
-        }
-        if (w != null && (w < 1 || w > config.maxDimension()))
-            throw new BadRequestException("Width out of range.");
-        if (h != null && (h < 1 || h > config.maxDimension()))
-            throw new BadRequestException("Height out of range.");
+    /**
+     * Normalise les paramètres d'une variante : format, profil d'encodage et qualité effective.
+     *
+     * @throws BadRequestException si le profil demandé n'existe pas
+     */
+    private VariantRequest variantRequest(
+            String subPath, Integer w, Integer h, boolean crop, Integer q, String fmt, String profile, boolean upscale
+    ) {
+        // Validation avant alignement : une dimension hors limites est refusée, pas ramenée au dernier palier.
+        validateDimensions(w, h);
+        ImageEncoder encoder = encoders.resolve(fmt, null);
+        EncodingProfile encoding = profile == null || profile.isBlank()
+                ? encoders.defaultProfile()
+                : encoders.profile(profile).orElseThrow(() -> new BadRequestException("Unknown encoding profile: " + profile));
 
-        q   = Math.min(100, Math.max(1, q));
-        fmt = sanitizeFormat(fmt);
+        int quality = q != null ? q
+                : encoding.quality() != null ? encoding.quality()
+                : encoder.defaultQuality();
+        SizeLadder.Size snapped = sizeLadder.snap(w, h, crop);
+        return new VariantRequest(subPath, snapped.width(), snapped.height(), crop,
+                normalizeQuality(encoder, quality), encoder, encoding, upscale);
+    }
 
-        boolean hasResize = (w != null || h != null);
+    private ImageContent serveOriginalBlocking(String subPath) throws IOException {
+        validatePath(subPath);
 
         // pour éviter une IOException si le dossier n'existe pas encore.
         Path uploadBase = uploadBaseDir();
+        Path target = uploadBase.resolve(subPath).normalize();
+        if (!target.startsWith(uploadBase)) {
+            LOG.warnf("Forbidden path access attempt: %s", subPath);
+            throw new ForbiddenException();
+        }
+        BasicFileAttributes attrs = readAttributesIfExists(target);
+        if (attrs == null || !attrs.isRegularFile())
+            throw missingSource(subPath);
 
-        // --- Servir l'original ---
-        if (!hasResize) {
-            Path target = uploadBase.resolve(subPath).normalize();
-            if (!target.startsWith(uploadBase)) {
-                LOG.warnf("Forbidden path access attempt: %s", subPath);
-                throw new ForbiddenException();
-            }
-            if (!Files.exists(target) || !Files.isRegularFile(target))
-                throw new NotFoundException();
+        long lastModified = attrs.lastModifiedTime().toMillis();
+        return ImageContent.ofFile(target, attrs.size(), lastModified, buildETag(subPath, attrs.size(), lastModified));
+    }
 
-            return Files.readAllBytes(target);
-        }
+    /**
+     * Cherche une variante sous sa clé demandée, en cache mémoire puis en cache disque.
+     * Aucune image n'est décodée : cette étape ne fait que des entrées/sorties.
+     *
+     * @param ifNoneMatch en-tête {@code If-None-Match} de la requête, ou {@code null}
+     * @return la variante en cache, ou {@code null} si elle doit être générée
+     */
+    private ImageContent findCachedVariant(VariantRequest variant, String ifNoneMatch) throws IOException {
+        validatePath(variant.subPath());
+        validateDimensions(variant.w(), variant.h());
 
-        // --- Servir une variante redimensionnée ---
         Path cacheBase = cacheBaseDir();
-        String requestedCacheKey = buildCacheKey(subPath, w, h, crop, q, fmt);
-        Path requestedCachePath = cacheBase.resolve(requestedCacheKey).normalize();
+        String cacheKeyBase = resolveCacheKeyBase(variant.subPath());
+        String requestedCacheKey = buildCacheKey(cacheKeyBase, variant, variant.w(), variant.h());
+        Path requestedCachePath = CacheLayout.resolve(cacheBase, cacheKeyBase, requestedCacheKey);
 
         if (!requestedCachePath.startsWith(cacheBase)) {
             LOG.warnf("Forbidden cache path attempt: %s", requestedCacheKey);
             throw new ForbiddenException();
         }
 
-        if (Files.exists(requestedCachePath)) {
-            return Files.readAllBytes(requestedCachePath);
+        VariantMemoryCache.Entry memoryHit = memoryCache.get(requestedCacheKey);
+        if (memoryHit != null) {
+            // Le fichier disque (clé effective) reste « récent » pour l'éviction LRU tant qu'il est servi depuis la mémoire.
+            variantIndex.touch(memoryHit.file());
+            return memoryHit.content();
         }
 
+        return readCachedVariant(requestedCacheKey, requestedCachePath, ifNoneMatch);
+    }
+
+    /**
+     * Génère une variante absente du cache puis la persiste (cache disque et mémoire).
+     * Étape coûteuse en CPU : exécutée sur le pool de transcodage.
+     *
+     * @return la variante générée, ou déjà présente sous sa clé effective
+     */
+    private ImageContent generateVariant(VariantRequest variant) throws IOException {
+        String subPath = variant.subPath();
+        Path uploadBase = uploadBaseDir();
+        Path cacheBase  = cacheBaseDir();
+        String cacheKeyBase = resolveCacheKeyBase(subPath);
+        String requestedCacheKey = buildCacheKey(cacheKeyBase, variant, variant.w(), variant.h());
+        Path requestedCachePath = CacheLayout.resolve(cacheBase, cacheKeyBase, requestedCacheKey);
+
         // Vérification de la source
         Path sourceTarget = uploadBase.resolve(subPath).normalize();
         if (!sourceTarget.startsWith(uploadBase)) {
@@ -223,70 +566,334 @@ public class ImageServerAdapter implements ImageUploader {
             throw new ForbiddenException();
         }
         if (!Files.exists(sourceTarget) || !Files.isRegularFile(sourceTarget))
-            throw new NotFoundException();
-
-        Integer effectiveW = w;
-        Integer effectiveH = h;
+            throw missingSource(subPath);
 
+        Integer effectiveW = variant.w();
+        Integer effectiveH = variant.h();
+        String effectiveCacheKey;
+        ImageContent generated;
 
-        // pour éviter qu'une seule dimension capped ne produise l'autre hors limite.
-        if (!upscale) {
-            BufferedImage sourceImage = ImageIO.read(sourceTarget.toFile());
-            if (sourceImage == null) {
+        // La source est ouverte une seule fois : l'en-tête fournit les dimensions,
+        // les pixels ne sont décodés que si la variante doit réellement être générée.
+        try (SourceImage source = SourceImage.open(sourceTarget)) {
+            if (source == null) {
                 LOG.errorf("Cannot read source image (unsupported format or corrupted): %s", subPath);
                 throw new NotSupportedException();
             }
-            int srcW = sourceImage.getWidth();
-            int srcH = sourceImage.getHeight();
-            if (effectiveW != null) effectiveW = Math.min(effectiveW, srcW);
-            if (effectiveH != null) effectiveH = Math.min(effectiveH, srcH);
+            // Originaux antérieurs à la validation de l'upload : même garde avant tout décodage.
+            checkSourceSize(source.width(), source.height());
+
+            // pour éviter qu'une seule dimension capped ne produise l'autre hors limite.
+            if (!variant.upscale()) {
+                if (effectiveW != null) effectiveW = Math.min(effectiveW, source.width());
+                if (effectiveH != null) effectiveH = Math.min(effectiveH, source.height());
+            }
+
+            effectiveCacheKey = buildCacheKey(cacheKeyBase, variant, effectiveW, effectiveH);
+            Path effectiveCachePath = CacheLayout.resolve(cacheBase, cacheKeyBase, effectiveCacheKey);
+            if (!effectiveCachePath.startsWith(cacheBase)) {
+                LOG.warnf("Forbidden effective cache path attempt: %s", effectiveCacheKey);
+                throw new ForbiddenException();
+            }
+            if (!effectiveCachePath.equals(requestedCachePath)) {
+                // Indexée sous la clé demandée : les prochains appels évitent la lecture de la source.
+                ImageContent diskHit = readCachedVariant(requestedCacheKey, effectiveCachePath, null);
+                if (diskHit != null) {
+                    return diskHit;
+                }
+            }
+
+            // --- Génération de la variante ---
+            BufferedImage resized = resizeBuilder(source, effectiveW, effectiveH, variant.crop()).asBufferedImage();
+            generated = persistVariant(requestedCacheKey, effectiveCachePath, resized, variant);
+        }
+
+        LOG.debugf("Cache miss — variant generated: %s", effectiveCacheKey);
+        return generated;
+    }
+
+    /**
+     * Encode une variante directement dans le cache disque, puis la publie par renommage atomique.
+     * <p>
+     * L'encodeur écrit au fil de l'eau dans un fichier temporaire : l'image encodée n'est jamais
+     * copiée en mémoire. Elle est ensuite servie comme une variante déjà en cache (sendfile,
+     * ou lecture unique si elle est admise dans le cache mémoire).
+     * <p>
+     * Si l'écriture disque échoue, la variante est encodée en mémoire pour être servie malgré tout.
+     *
+     * @param requestedCacheKey  clé demandée, sous laquelle la variante est gardée en mémoire
+     * @param effectiveCachePath emplacement du fichier de cache
+     * @param image              image redimensionnée
+     * @param variant            format, qualité et profil d'encodage
+     * @return la variante générée
+     */
+    private ImageContent persistVariant(
+            String requestedCacheKey, Path effectiveCachePath, BufferedImage image, VariantRequest variant
+    ) throws IOException {
+        Path tmp = null;
+        try {
+            Files.createDirectories(effectiveCachePath.getParent());
+            // Fichier temporaire unique : deux clés demandées peuvent aboutir à la même clé effective.
+            tmp = Files.createTempFile(effectiveCachePath.getParent(),
+                    effectiveCachePath.getFileName().toString(), VariantIndex.TEMP_SUFFIX);
+            variant.encoder().encode(image, variant.quality(), variant.profile(), tmp);
+            Files.move(tmp, effectiveCachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            BasicFileAttributes attrs = Files.readAttributes(effectiveCachePath, BasicFileAttributes.class);
+            variantIndex.register(effectiveCachePath, attrs.size(), attrs.lastModifiedTime().toMillis());
+            ImageContent generated = readCachedVariant(requestedCacheKey, effectiveCachePath, null);
+            if (generated != null) {
+                return generated;
+            }
+        } catch (IOException e) {
+            if (tmp != null) Files.deleteIfExists(tmp);
+            LOG.errorf(e, "Failed to write cache file: %s", effectiveCachePath);
         }
 
-        String effectiveCacheKey = buildCacheKey(subPath, effectiveW, effectiveH, crop, q, fmt);
-        Path effectiveCachePath = cacheBase.resolve(effectiveCacheKey).normalize();
-        if (!effectiveCachePath.startsWith(cacheBase)) {
-            LOG.warnf("Forbidden effective cache path attempt: %s", effectiveCacheKey);
+        // On continue : on renvoie quand même l'image générée, encodée en mémoire.
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        variant.encoder().encode(image, variant.quality(), variant.profile(), out);
+        byte[] imageBytes = out.toByteArray();
+        long lastModified = System.currentTimeMillis();
+        return ImageContent.ofBytes(imageBytes, lastModified,
+                buildETag(effectiveCachePath.getFileName().toString(), imageBytes.length, lastModified));
+    }
+
+    // -------------------------------------------------------------------------
+    // Srcset
+    // -------------------------------------------------------------------------
+
+    /**
+     * Génère les variantes en largeur d'un jeu responsive, à partir d'un seul décodage de la source.
+     * <p>
+     * Les largeurs sont traitées de la plus grande à la plus petite : chaque variante est
+     * redimensionnée à partir de la précédente, déjà réduite, plutôt qu'à partir de la source.
+     * Les variantes déjà en cache sont réutilisées ; si toutes le sont, la source n'est pas décodée.
+     * <p>
+     * Le traitement s'exécute sur le pool de transcodage (un seul créneau pour tout le jeu).
+     *
+     * @param subPath chemin relatif de l'image
+     * @param widths  largeurs demandées (au plus {@link #MAX_SRCSET_WIDTHS})
+     * @param q       qualité (voir {@link #serveImage})
+     * @param fmt     format de sortie
+     * @param profile profil d'encodage
+     * @param upscale autorise les largeurs supérieures à celle de la source
+     * @return les variantes, de la plus large à la plus étroite
+     */
+    @Override
+    public Uni<List<ResponsiveVariant>> generateSrcset(
+            String subPath,
+            List<Integer> widths,
+            Integer q,
+            String fmt,
+            String profile,
+            boolean upscale
+    ) {
+        if (missingSources.isMissing(subPath)) {
+            return Uni.createFrom().failure(new NotFoundException());
+        }
+        VariantRequest template;
+        try {
+            validatePath(subPath);
+            if (widths == null || widths.isEmpty() || widths.size() > MAX_SRCSET_WIDTHS)
+                throw new BadRequestException("Between 1 and " + MAX_SRCSET_WIDTHS + " widths are required.");
+            widths.forEach(width -> validateDimensions(width, null));
+            template = variantRequest(subPath, null, null, false, q, fmt, profile, upscale);
+        } catch (BadRequestException e) {
+            return Uni.createFrom().failure(e);
+        }
+        return transcoder.submit(() -> generateSrcsetBlocking(template, widths));
+    }
+
+    private List<ResponsiveVariant> generateSrcsetBlocking(VariantRequest template, List<Integer> widths) throws IOException {
+        String subPath = template.subPath();
+        Path uploadBase = uploadBaseDir();
+        Path cacheBase  = cacheBaseDir();
+        String cacheKeyBase = resolveCacheKeyBase(subPath);
+
+        Path sourceTarget = uploadBase.resolve(subPath).normalize();
+        if (!sourceTarget.startsWith(uploadBase)) {
+            LOG.warnf("Forbidden source path attempt: %s", subPath);
             throw new ForbiddenException();
         }
-        if (!effectiveCachePath.equals(requestedCachePath) && Files.exists(effectiveCachePath)) {
-            return Files.readAllBytes(effectiveCachePath);
+        if (!Files.isRegularFile(sourceTarget))
+            throw missingSource(subPath);
+
+        List<ResponsiveVariant> variants = new ArrayList<>();
+        try (SourceImage source = SourceImage.open(sourceTarget)) {
+            if (source == null) {
+                LOG.errorf("Cannot read source image (unsupported format or corrupted): %s", subPath);
+                throw new NotSupportedException();
+            }
+            checkSourceSize(source.width(), source.height());
+
+            List<Integer> effectiveWidths = widths.stream()
+                    .map(sizeLadder::snap)
+                    .map(width -> template.upscale() ? width : Math.min(width, source.width()))
+                    .distinct()
+                    .sorted((a, b) -> Integer.compare(b, a))
+                    .toList();
+
+            // Image de travail : la dernière variante produite, point de départ de la suivante.
+            BufferedImage current = null;
+            for (int width : effectiveWidths) {
+                String cacheKey = buildCacheKey(cacheKeyBase, template, width, null);
+                Path cachePath = CacheLayout.resolve(cacheBase, cacheKeyBase, cacheKey);
+                if (!cachePath.startsWith(cacheBase)) {
+                    LOG.warnf("Forbidden cache path attempt: %s", cacheKey);
+                    throw new ForbiddenException();
+                }
+
+                int height = (int) Math.max(1, Math.round((double) width * source.height() / source.width()));
+                BasicFileAttributes cached = readAttributesIfExists(cachePath);
+                if (cached != null && cached.isRegularFile()) {
+                    variantIndex.touch(cachePath);
+                    variants.add(new ResponsiveVariant(width, height, cached.size()));
+                    continue;
+                }
+
+                current = current == null
+                        ? resizeBuilder(source, width, null, false).asBufferedImage()
+                        : Thumbnails.of(current)
+                                .width(width)
+                                .resizer(resizerFor(current, (double) width / current.getWidth(),
+                                        Math.max(width, width * current.getHeight() / current.getWidth())))
+                                .asBufferedImage();
+
+                ImageContent generated = persistVariant(cacheKey, cachePath, current, template);
+                variants.add(new ResponsiveVariant(current.getWidth(), current.getHeight(), generated.length()));
+            }
         }
 
-        // --- Génération de la variante ---
-        ByteArrayOutputStream out     = new ByteArrayOutputStream();
-        Thumbnails.Builder<File> builder = Thumbnails.of(sourceTarget.toFile());
+        LOG.debugf("Srcset generated: %s %s", subPath, variants);
+        return variants;
+    }
 
-        if (effectiveW != null && effectiveH != null) {
-            builder.size(effectiveW, effectiveH);
-            if (crop) builder.crop(Positions.CENTER);
-            else      builder.keepAspectRatio(true);
-        } else if (effectiveW != null) {
-            builder.width(effectiveW);
-        } else if (effectiveH != null) {
-            builder.height(effectiveH);
-        } else {
-            builder.scale(1.0);
+    // -------------------------------------------------------------------------
+    // Metadata
+    // -------------------------------------------------------------------------
+
+    /**
+     * Renvoie les dimensions et l'aperçu BlurHash d'un original, lus dans son fichier de métadonnées.
+     * <p>
+     * Un original sans métadonnées (antérieur à leur calcul, ou dont le calcul a échoué à l'upload)
+     * est décrit à la demande sur le pool de transcodage ; le fichier est alors écrit pour les lectures suivantes.
+     *
+     * @param subPath chemin relatif de l'original
+     * @return les métadonnées, 404 si l'original est absent
+     */
+    @Override
+    public Uni<ImageMetadata> metadata(String subPath) {
+        if (missingSources.isMissing(subPath)) {
+            return Uni.createFrom().failure(new NotFoundException());
+        }
+        try {
+            validatePath(subPath);
+        } catch (WebApplicationException e) {
+            return Uni.createFrom().failure(e);
         }
+        return runBlocking(() -> readMetadata(subPath))
+                .chain(metadata -> metadata != null
+                        ? Uni.createFrom().item(metadata)
+                        : transcoder.submit(() -> describeSourceBlocking(subPath)));
+    }
 
-        builder.outputQuality(q / 100.0)
-                .outputFormat(fmt)
-                .toOutputStream(out);
+    /**
+     * Lit le fichier de métadonnées d'un original.
+     *
+     * @return les métadonnées, ou {@code null} si elles sont absentes, illisibles ou sans l'aperçu attendu
+     */
+    private ImageMetadata readMetadata(String subPath) throws IOException {
+        Path original = resolveSource(subPath);
+        if (!Files.isRegularFile(original))
+            throw missingSource(subPath);
 
-        byte[] imageBytes = out.toByteArray();
+        Path sidecar = metadataPath(original);
+        if (!Files.isRegularFile(sidecar)) return null;
 
-        Files.createDirectories(effectiveCachePath.getParent());
-        Path tmp = effectiveCachePath.resolveSibling(effectiveCachePath.getFileName() + ".tmp");
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(sidecar)) {
+            properties.load(reader);
+        }
+        String placeholder = properties.getProperty("placeholder");
+        if (placeholder == null && config.placeholders()) return null;
         try {
-            Files.write(tmp, imageBytes);
-            Files.move(tmp, effectiveCachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
-        } catch (IOException e) {
+            return new ImageMetadata(subPath,
+                    Integer.parseInt(properties.getProperty("width", "")),
+                    Integer.parseInt(properties.getProperty("height", "")),
+                    placeholder);
+        } catch (NumberFormatException e) {
+            LOG.warnf("Unreadable image metadata, recomputing: %s", sidecar);
+            return null;
+        }
+    }
+
+    private ImageMetadata describeSourceBlocking(String subPath) throws IOException {
+        Path original = resolveSource(subPath);
+        if (!Files.isRegularFile(original))
+            throw missingSource(subPath);
+
+        ImageMetadata metadata = describeSource(subPath, original);
+        if (metadata == null) {
+            LOG.errorf("Cannot read source image (unsupported format or corrupted): %s", subPath);
+            throw new NotSupportedException();
+        }
+        return metadata;
+    }
+
+    /**
+     * Calcule les dimensions (orientées) et l'aperçu d'un original, puis écrit son fichier de métadonnées.
+     * L'aperçu est tiré d'une vignette d'au plus {@value #PLACEHOLDER_SIZE} pixels de côté,
+     * décodée par sous-échantillonnage.
+     *
+     * @return les métadonnées, ou {@code null} si l'image est illisible
+     */
+    private ImageMetadata describeSource(String subPath, Path original) throws IOException {
+        try (SourceImage source = SourceImage.open(original)) {
+            if (source == null) return null;
+            checkSourceSize(source.width(), source.height());
+
+            String placeholder = config.placeholders()
+                    ? BlurHash.encode(resizeBuilder(source, PLACEHOLDER_SIZE, PLACEHOLDER_SIZE, false).asBufferedImage())
+                    : null;
+            ImageMetadata metadata = new ImageMetadata(subPath, source.width(), source.height(), placeholder);
+            writeMetadata(metadataPath(original), metadata);
+            return metadata;
+        }
+    }
+
+    /**
+     * Écrit un fichier de métadonnées de façon atomique (fichier temporaire puis renommage).
+     */
+    private void writeMetadata(Path sidecar, ImageMetadata metadata) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("width", Integer.toString(metadata.width()));
+        properties.setProperty("height", Integer.toString(metadata.height()));
+        if (metadata.placeholder() != null) properties.setProperty("placeholder", metadata.placeholder());
+
+        Path tmp = Files.createTempFile(sidecar.getParent(), sidecar.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmp)) {
+                properties.store(writer, null);
+            }
+            Files.move(tmp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
             Files.deleteIfExists(tmp);
-            LOG.errorf(e, "Failed to write cache file: %s", effectiveCachePath);
-            // On continue : on renvoie quand même l'image générée en mémoire.
         }
+    }
 
-        LOG.debugf("Cache miss — variant generated: %s", effectiveCacheKey);
-        return imageBytes;
+    private Path resolveSource(String subPath) throws IOException {
+        Path uploadBase = uploadBaseDir();
+        Path original = uploadBase.resolve(subPath).normalize();
+        if (!original.startsWith(uploadBase)) {
+            LOG.warnf("Forbidden source path attempt: %s", subPath);
+            throw new ForbiddenException();
+        }
+        return original;
+    }
+
+    private static Path metadataPath(Path original) {
+        return original.resolveSibling(original.getFileName() + METADATA_SUFFIX);
     }
 
     // -------------------------------------------------------------------------
@@ -312,6 +919,8 @@ public class ImageServerAdapter implements ImageUploader {
             LOG.warnf("Rejected invalid delete path: %s", subPath);
             throw new BadRequestException();
         }
+        if (BlobStore.isReserved(subPath) || subPath.endsWith(METADATA_SUFFIX))
+            throw new NotFoundException();
 
         Path uploadBase = uploadBaseDir();
         Path target     = uploadBase.resolve(subPath).normalize();
@@ -320,27 +929,32 @@ public class ImageServerAdapter implements ImageUploader {
             throw new ForbiddenException();
         }
 
-        if (!Files.exists(target))
+        if (!Files.exists(target, LinkOption.NOFOLLOW_LINKS))
             throw new NotFoundException();
+        Files.deleteIfExists(metadataPath(target));
 
-        Files.delete(target);
-        LOG.infof("Original deleted: %s", subPath);
-
-        // Purge du cache : préfixe déterministe identique à buildCacheKey
-        String cachePrefix = buildCacheKeyBase(subPath);
-        Path   cacheBase   = cacheBaseDir();
-        if (Files.exists(cacheBase)) {
-            try (var stream = Files.walk(cacheBase)) {
-                stream.filter(Files::isRegularFile)
-                        .filter(p -> p.getFileName().toString().startsWith(cachePrefix))
-                        .forEach(p -> {
-                            try {
-                                Files.delete(p);
-                                LOG.debugf("Cache variant deleted: %s", p);
-                            } catch (IOException e) {
-                                LOG.warnf(e, "Could not delete cache file: %s", p);
-                            }
-                        });
+        // Original adressé par contenu : le blob et ses variantes restent tant qu'un autre chemin y fait référence.
+        String blobHash = blobStore.blobHashOf(target);
+        if (blobHash != null) {
+            boolean released = blobStore.release(uploadBase, target, blobHash);
+            cacheKeyBases.invalidate(target.toString());
+            LOG.infof("Original deleted: %s", subPath);
+            if (!released) return;
+        } else {
+            Files.delete(target);
+            LOG.infof("Original deleted: %s", subPath);
+        }
+
+        // Purge du cache : base de clé identique à buildCacheKey, variantes connues par l'index.
+        String cacheKeyBase = blobHash != null ? blobHash : buildCacheKeyBase(subPath);
+        memoryCache.invalidateKeyBase(cacheKeyBase);
+
+        for (Path variant : variantIndex.removeAll(cacheKeyBase)) {
+            try {
+                Files.deleteIfExists(variant);
+                LOG.debugf("Cache variant deleted: %s", variant);
+            } catch (IOException e) {
+                LOG.warnf(e, "Could not delete cache file: %s", variant);
             }
         }
     }
@@ -356,11 +970,180 @@ public class ImageServerAdapter implements ImageUploader {
                         return supplier.get();
                     } catch (IOException e) {
                         throw new UncheckedIOException(e);
+                    } catch (RuntimeException e) {
+                        // Les WebApplicationException doivent atteindre la ressource telles quelles.
+                        throw e;
                     } catch (Exception e) {
                         throw new RuntimeException(e);
                     }
                 })
-                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+                .runSubscriptionOn(ioExecutor);
+    }
+
+    private void validatePath(String subPath) {
+        if (subPath == null || subPath.isBlank() || subPath.contains("..")) {
+            LOG.warnf("Rejected path traversal attempt: %s", subPath);
+            throw new BadRequestException();
+        }
+        // Les blobs ne sont accessibles qu'à travers leurs chemins logiques, les métadonnées par /_meta.
+        if (BlobStore.isReserved(subPath) || subPath.endsWith(METADATA_SUFFIX))
+            throw new NotFoundException();
+    }
+
+    /**
+     * Mémorise un original introuvable dans le cache négatif.
+     *
+     * @return l'exception à lever
+     */
+    private NotFoundException missingSource(String subPath) {
+        missingSources.markMissing(subPath);
+        return new NotFoundException();
+    }
+
+    private void validateDimensions(Integer w, Integer h) {
+        if (w != null && (w < 1 || w > config.maxDimension()))
+            throw new BadRequestException("Width out of range.");
+        if (h != null && (h < 1 || h > config.maxDimension()))
+            throw new BadRequestException("Height out of range.");
+    }
+
+    /**
+     * Borne la qualité entre 1 et 100 ; un format sans perte l'ignore, elle est alors fixée à 100
+     * pour que toutes les qualités demandées partagent la même variante en cache.
+     */
+    private int normalizeQuality(ImageEncoder encoder, int q) {
+        return encoder.lossy() ? Math.min(100, Math.max(1, q)) : 100;
+    }
+
+    /**
+     * Prépare le redimensionnement à partir des pixels décodés une seule fois
+     * (sous-échantillonnés pour les fortes réductions, voir {@link SourceImage#decode}).
+     * <p>
+     * Le redimensionnement s'applique à l'image stockée, le redressement EXIF ensuite :
+     * pour un quart de tour, les dimensions cibles sont donc inversées.
+     */
+    private Thumbnails.Builder<BufferedImage> resizeBuilder(
+            SourceImage source, Integer w, Integer h, boolean crop) throws IOException {
+        Integer targetW = source.isQuarterTurn() ? h : w;
+        Integer targetH = source.isQuarterTurn() ? w : h;
+
+        BufferedImage decoded = source.decode(w, h, crop);
+        Thumbnails.Builder<BufferedImage> builder = Thumbnails.of(decoded);
+        if (targetW != null && targetH != null) {
+            builder.size(targetW, targetH);
+            if (crop) builder.crop(Positions.CENTER);
+            else      builder.keepAspectRatio(true);
+        } else if (targetW != null) {
+            builder.width(targetW);
+        } else if (targetH != null) {
+            builder.height(targetH);
+        } else {
+            builder.scale(1.0);
+        }
+        builder.resizer(resizerFor(decoded, targetW, targetH, crop));
+
+        ImageFilter orientation = source.orientationFilter();
+        if (orientation != null) builder.addFilter(orientation);
+        return builder;
+    }
+
+    /**
+     * Choisit l'algorithme de redimensionnement d'une image décodée vers sa taille cible
+     * (dimensions non orientées, comme celles de l'image décodée).
+     */
+    private Resizer resizerFor(BufferedImage decoded, Integer targetW, Integer targetH, boolean crop) {
+        int srcW = decoded.getWidth();
+        int srcH = decoded.getHeight();
+        double scale;
+        if (targetW != null && targetH != null) {
+            double scaleW = (double) targetW / srcW;
+            double scaleH = (double) targetH / srcH;
+            scale = crop ? Math.max(scaleW, scaleH) : Math.min(scaleW, scaleH);
+        } else if (targetW != null) {
+            scale = (double) targetW / srcW;
+        } else if (targetH != null) {
+            scale = (double) targetH / srcH;
+        } else {
+            scale = 1.0;
+        }
+        int outputSize = crop && targetW != null && targetH != null
+                ? Math.max(targetW, targetH)
+                : (int) Math.round(Math.max(srcW, srcH) * scale);
+        return resizerFor(decoded, scale, outputSize);
+    }
+
+    /**
+     * @param image      image à redimensionner
+     * @param scale      facteur d'échelle (sortie / source)
+     * @param outputSize plus grand côté de la sortie
+     * @return l'algorithme du niveau configuré, ou choisi d'après la taille et l'échelle en mode {@code auto} ;
+     *         au-delà de {@code image.tiled-resize-min-pixels}, le filtre de Lanczos réparti en bandes
+     */
+    private Resizer resizerFor(BufferedImage image, double scale, int outputSize) {
+        ResamplingTier tier = resamplingTier;
+        if (tier == null) {
+            tier = ResamplingTier.select(scale, outputSize, config.resamplingFastMaxSize(), config.resamplingHighMinSize());
+        }
+        if (tier != ResamplingTier.FAST && tiledResizer.accepts(image)) {
+            return tiledResizer;
+        }
+        return tier.resizer();
+    }
+
+    /**
+     * Lit une variante présente dans le cache disque.
+     * <p>
+     * Les petites variantes admissibles dans le cache mémoire y sont chargées une fois,
+     * puis servies depuis la mémoire ; les autres sont renvoyées par chemin, sans copie.
+     * L'ETag est calculé à partir des seuls attributs : une variante que le client possède déjà
+     * ({@code If-None-Match}) est renvoyée par chemin, sans être lue ni promue.
+     *
+     * @param memoryKey   clé sous laquelle indexer la variante en mémoire
+     * @param cachePath   fichier de cache à lire
+     * @param ifNoneMatch en-tête {@code If-None-Match} de la requête, ou {@code null}
+     * @return contenu de la variante, ou {@code null} si le fichier n'existe pas
+     */
+    private ImageContent readCachedVariant(String memoryKey, Path cachePath, String ifNoneMatch) throws IOException {
+        BasicFileAttributes attrs = readAttributesIfExists(cachePath);
+        if (attrs == null || !attrs.isRegularFile()) {
+            return null;
+        }
+        variantIndex.touch(cachePath);
+        long lastModified = attrs.lastModifiedTime().toMillis();
+        String etag = buildETag(cachePath.getFileName().toString(), attrs.size(), lastModified);
+        if (!matchesETag(ifNoneMatch, etag) && memoryCache.accepts(attrs.size())) {
+            ImageContent content = ImageContent.ofBytes(Files.readAllBytes(cachePath), lastModified, etag);
+            memoryCache.put(memoryKey, cachePath, content);
+            return content;
+        }
+        return ImageContent.ofFile(cachePath, attrs.size(), lastModified, etag);
+    }
+
+    /**
+     * Indique si un en-tête {@code If-None-Match} désigne l'ETag donné (comparaison faible, comme pour un {@code 304}).
+     */
+    private static boolean matchesETag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) return true;
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals('"' + etag + '"')) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Lit les attributs d'un fichier en un seul appel système.
+     *
+     * @return les attributs, ou {@code null} si le fichier n'existe pas
+     */
+    private BasicFileAttributes readAttributesIfExists(Path path) throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
     }
 
     private Path uploadBaseDir() throws IOException {
@@ -403,8 +1186,9 @@ public class ImageServerAdapter implements ImageUploader {
     /**
      * Construit la partie "base" de la clé de cache (sans les paramètres de transformation).
      * <p>
-     * Utilisée à la fois par {@link #buildCacheKey} et par {@link #deleteImage}
+     * Utilisée à la fois pour les clés de variantes et par {@link #deleteImage}
      * pour garantir que le préfixe de suppression est cohérent avec le nom des fichiers.
+     * Les originaux adressés par contenu utilisent le hash de leur blob (voir {@link #resolveCacheKeyBase}).
      *
      * @param subPath chemin logique de l'image source
      * @return base de la clé de cache
@@ -415,19 +1199,89 @@ public class ImageServerAdapter implements ImageUploader {
         return lastDot > 0 ? base.substring(0, lastDot) : base;
     }
 
+    /**
+     * Détermine la base de clé de cache d'un original.
+     * <p>
+     * En mode {@code image.content-addressed}, un original adressé par contenu a pour base le hash
+     * de son blob : les chemins logiques d'un même contenu partagent alors leurs variantes.
+     * Sinon, la base dérive du chemin, sans accès au disque.
+     * <p>
+     * La résolution d'un chemin existant est mémorisée jusqu'à sa suppression : une variante
+     * servie depuis le cache mémoire ne coûte aucun appel système.
+     *
+     * @param subPath chemin logique de l'image source
+     * @return base de la clé de cache
+     */
+    private String resolveCacheKeyBase(String subPath) throws IOException {
+        if (!config.contentAddressed()) return buildCacheKeyBase(subPath);
+
+        Path uploadBase = uploadBaseDir();
+        Path logical = uploadBase.resolve(subPath).normalize();
+        if (!logical.startsWith(uploadBase)) return buildCacheKeyBase(subPath);
+
+        // Indexé par chemin normalisé : toutes les écritures d'un même chemin partagent l'entrée.
+        String known = cacheKeyBases.getIfPresent(logical.toString());
+        if (known != null) return known;
+
+        String blobHash = blobStore.blobHashOf(logical);
+        if (blobHash != null) {
+            cacheKeyBases.put(logical.toString(), blobHash);
+            return blobHash;
+        }
+        // Original antérieur au mode adressé par contenu : mémorisé aussi, un chemin absent ne l'est pas.
+        String base = buildCacheKeyBase(subPath);
+        if (Files.isRegularFile(logical, LinkOption.NOFOLLOW_LINKS)) cacheKeyBases.put(logical.toString(), base);
+        return base;
+    }
+
     /**
      * Construit une clé de cache déterministe pour une variante d'image.
      * <p>
-     * La clé intègre le chemin logique et tous les paramètres de transformation
-     * qui influencent le résultat.
+     * La clé intègre l'identité de l'original (voir {@link #resolveCacheKeyBase}) et tous
+     * les paramètres de transformation qui influencent le résultat, dont le profil d'encodage
+     * lorsqu'il y en a un (format décrit dans {@link CacheLayout}).
+     *
+     * @param w largeur de la clé (demandée ou effective)
+     * @param h hauteur de la clé (demandée ou effective)
      */
-    private String buildCacheKey(String subPath, Integer w, Integer h, boolean crop, int q, String fmt) {
-        return buildCacheKeyBase(subPath)
+    private String buildCacheKey(String cacheKeyBase, VariantRequest variant, Integer w, Integer h) {
+        String profile = variant.profile().name();
+        return cacheKeyBase
                 + "_w" + (w != null ? w : "x")
                 + "_h" + (h != null ? h : "x")
-                + "_crop" + (crop ? "1" : "0")
-                + "_q" + q
-                + "." + fmt;
+                + "_crop" + (variant.crop() ? "1" : "0")
+                + "_q" + variant.quality()
+                + (profile != null ? "_p" + profile : "")
+                + "." + variant.encoder().format();
+    }
+
+    /**
+     * Construit un ETag à partir de l'identité du fichier (clé de cache ou chemin),
+     * de sa taille et de sa date de modification : aucun octet du contenu n'est lu.
+     * <p>
+     * Une variante régénérée (nouvelle date) change donc d'ETag, une lecture répétée non.
+     */
+    private String buildETag(String key, long length, long lastModified) {
+        return Integer.toHexString(key.hashCode())
+                + "-" + Long.toHexString(length)
+                + "-" + Long.toHexString(lastModified);
+    }
+
+    /**
+     * Construit la clé de regroupement des requêtes concurrentes.
+     * <p>
+     * Elle reprend les paramètres normalisés de {@link #buildCacheKey}, plus {@code upscale}
+     * qui change le résultat sans faire partie de la clé de cache demandée.
+     */
+    private String buildFlightKey(VariantRequest variant) {
+        return variant.subPath()
+                + "|w" + (variant.w() != null ? variant.w() : "x")
+                + "|h" + (variant.h() != null ? variant.h() : "x")
+                + "|crop" + (variant.crop() ? "1" : "0")
+                + "|q" + variant.quality()
+                + "|p" + (variant.profile().name() != null ? variant.profile().name() : "")
+                + "|" + variant.encoder().format()
+                + "|up" + (variant.upscale() ? "1" : "0");
     }
 
     /**
@@ -454,19 +1308,6 @@ public class ImageServerAdapter implements ImageUploader {
         return folder;
     }
 
-    /**
-     * Normalise le format de sortie accepté par le service.
-     * Toute valeur non reconnue est rabattue vers {@code jpg}.
-     */
-    private String sanitizeFormat(String fmt) {
-        if (fmt == null) return "jpg";
-        return switch (fmt.toLowerCase()) {
-            case "png"  -> "png";
-            case "webp" -> "webp";
-            default     -> "jpg";
-        };
-    }
-
     @FunctionalInterface
     private interface ThrowingSupplier<T> {
         T get() throws Exception;
@@ -0,0 +1,120 @@
+package image.server.infrastructure.adapter;
+
+import image.server.infrastructure.config.ImageConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool dédié aux transcodages (décodage, redimensionnement, encodage), isolé du pool
+ * de workers partagé par les autres endpoints bloquants de l'application.
+ * <p>
+ * Le pool est dimensionné sur le nombre de cœurs et sa file d'attente est bornée :
+ * quand elle est pleine, la requête échoue immédiatement en {@code 503} avec un
+ * en-tête {@code Retry-After}, au lieu de s'accumuler en mémoire.
+ * <p>
+ * Métriques exposées :
+ * - {@code image.transcode.queue_depth} : transcodages en attente,
+ * - {@code image.transcode.active} : transcodages en cours,
+ * - {@code image.transcode.wait} : attente en file avant exécution,
+ * - {@code image.transcode.rejected} : requêtes refusées pour surcharge.
+ */
+@ApplicationScoped
+public class TranscodingExecutor {
+
+    private static final Logger LOG = Logger.getLogger(TranscodingExecutor.class);
+
+    @Inject
+    ImageConfig config;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+    private Timer wait;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        int workers = config.transcodeWorkers() > 0
+                ? config.transcodeWorkers()
+                : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(
+                workers, workers,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.transcodeQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-transcode-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        wait     = meterRegistry.timer("image.transcode.wait");
+        rejected = meterRegistry.counter("image.transcode.rejected");
+        meterRegistry.gauge("image.transcode.queue_depth", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("image.transcode.active", executor, ThreadPoolExecutor::getActiveCount);
+
+        LOG.infof("Transcoding pool started — %d worker(s), queue capacity %d.",
+                workers, executor.getQueue().remainingCapacity());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Exécute un transcodage sur le pool dédié.
+     *
+     * @param task transcodage à exécuter
+     * @return le résultat ; échoue en {@link ServiceUnavailableException} si la file est pleine
+     */
+    public <T> Uni<T> submit(Callable<T> task) {
+        return Uni.createFrom()
+                .item(() -> {
+                    try {
+                        return task.call();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                })
+                .runSubscriptionOn(this::dispatch);
+    }
+
+    private void dispatch(Runnable command) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                wait.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                command.run();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            LOG.debugf("Transcoding queue full, rejecting request.");
+            throw new ServiceUnavailableException("Image transcoding overloaded.", (long) config.transcodeRetryAfter());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package image.server.infrastructure.adapter;
+
+import image.server.infrastructure.config.ImageConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * File d'exécution bornée pour la pré-génération des variantes après upload.
+ * <p>
+ * Les tâches sont exécutées en arrière-plan, sans retarder la réponse de l'upload. Les threads de
+ * cette file ne font qu'ordonnancer : les transcodages eux-mêmes passent par {@link TranscodingExecutor},
+ * dont ils partagent la borne CPU. Quand la file est pleine, la tâche est abandonnée : les variantes seront générées
+ * à la première lecture, comme sans pré-génération.
+ * <p>
+ * Métriques exposées :
+ * - {@code image.presets.queue_depth} : uploads en attente,
+ * - {@code image.presets.lag} : délai entre l'upload et le début de la génération,
+ * - {@code image.presets.completed} / {@code failed} / {@code rejected}.
+ */
+@ApplicationScoped
+public class VariantPresetPipeline {
+
+    private static final Logger LOG = Logger.getLogger(VariantPresetPipeline.class);
+
+    @Inject
+    ImageConfig config;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+    private Timer lag;
+    private Counter completed;
+    private Counter failed;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        int workers = Math.max(1, config.presetWorkers());
+        executor = new ThreadPoolExecutor(
+                workers, workers,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.presetQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-preset-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        lag       = meterRegistry.timer("image.presets.lag");
+        completed = meterRegistry.counter("image.presets.completed");
+        failed    = meterRegistry.counter("image.presets.failed");
+        rejected  = meterRegistry.counter("image.presets.rejected");
+        meterRegistry.gauge("image.presets.queue_depth", executor, e -> e.getQueue().size());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Planifie une tâche de pré-génération sans bloquer l'appelant.
+     *
+     * @param label libellé journalisé (chemin de l'original)
+     * @param task  génération à exécuter
+     */
+    public void submit(String label, Runnable task) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                lag.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    task.run();
+                    completed.increment();
+                } catch (RuntimeException e) {
+                    failed.increment();
+                    LOG.warnf(e, "Variant pre-generation failed: %s", label);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            LOG.warnf("Variant pre-generation queue full, skipping: %s", label);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package image.server.infrastructure.api;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plage d'octets inclusive issue d'un en-tête HTTP {@code Range} (RFC 9110 §14).
+ *
+ * @param start premier octet (inclus)
+ * @param end   dernier octet (inclus)
+ */
+record ByteRange(long start, long end) {
+
+    /**
+     * Nombre maximal de plages acceptées dans une requête ; au-delà, l'en-tête est ignoré
+     * et l'image est servie entièrement.
+     */
+    static final int MAX_RANGES = 16;
+
+    long length() {
+        return end - start + 1;
+    }
+
+    String contentRange(long totalLength) {
+        return "bytes " + start + "-" + end + "/" + totalLength;
+    }
+
+    /**
+     * Analyse un en-tête {@code Range} pour une ressource de taille donnée.
+     * <p>
+     * Formes acceptées : {@code bytes=0-499}, {@code bytes=500-}, {@code bytes=-500},
+     * et leurs combinaisons séparées par des virgules.
+     *
+     * @param header      valeur brute de l'en-tête
+     * @param totalLength taille de la ressource en octets
+     * @return {@code null} si l'en-tête est absent, invalide ou ignoré (réponse complète),
+     *         une liste vide si aucune plage n'est satisfaisable (416),
+     *         sinon les plages bornées à la taille de la ressource
+     */
+    static List<ByteRange> parse(String header, long totalLength) {
+        if (header == null || !header.startsWith("bytes=") || totalLength <= 0) return null;
+
+        String[] specs = header.substring("bytes=".length()).split(",");
+        if (specs.length > MAX_RANGES) return null;
+
+        List<ByteRange> ranges = new ArrayList<>(specs.length);
+        for (String rawSpec : specs) {
+            String spec = rawSpec.trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) return null;
+
+            String first = spec.substring(0, dash).trim();
+            String last  = spec.substring(dash + 1).trim();
+            try {
+                if (first.isEmpty()) {
+                    // Suffixe : les N derniers octets
+                    if (last.isEmpty()) return null;
+                    long suffix = Long.parseLong(last);
+                    if (suffix <= 0) continue;
+                    ranges.add(new ByteRange(Math.max(0, totalLength - suffix), totalLength - 1));
+                } else {
+                    long start = Long.parseLong(first);
+                    long end   = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                    if (start < 0 || end < start) return null;
+                    if (start >= totalLength) continue;
+                    ranges.add(new ByteRange(start, Math.min(end, totalLength - 1)));
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Vérifie la condition If-Range : la plage n'est servie que si le client
+     * possède encore la même version (ETag fort ou date identique).
+     *
+     * @param ifRange      valeur brute de l'en-tête (peut être {@code null})
+     * @param etag         ETag courant, sans guillemets
+     * @param lastModified date de dernière modification courante (epoch millis)
+     * @return {@code true} si l'en-tête est absent ou correspond à la version courante
+     */
+    static boolean ifRangeMatches(String ifRange, String etag, long lastModified) {
+        if (ifRange == null || ifRange.isBlank()) return true;
+        if (ifRange.startsWith("\"")) return ifRange.equals('"' + etag + '"');
+        if (ifRange.startsWith("W/")) return false;
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return date.toEpochSecond() == lastModified / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package image.server.infrastructure.api;
+
+import jakarta.ws.rs.core.HttpHeaders;
+
+import java.util.function.Function;
+
+/**
+ * Indications envoyées par le client (Client Hints, RFC 8942) sur l'affichage de l'image.
+ * <p>
+ * Les en-têtes {@code Sec-CH-*} sont lus en priorité, puis leurs anciennes formes
+ * ({@code DPR}, {@code Width}, {@code Viewport-Width}). Une valeur absente ou invalide est ignorée.
+ *
+ * @param dpr           densité de pixels de l'écran (pixels physiques par pixel CSS)
+ * @param width         largeur d'affichage de l'image, en pixels physiques
+ * @param viewportWidth largeur de la fenêtre, en pixels CSS
+ * @param saveData      le client demande à économiser les données ({@code Save-Data: on})
+ */
+record ClientHints(Double dpr, Integer width, Integer viewportWidth, boolean saveData) {
+
+    /** Indications demandées au navigateur pour les requêtes suivantes. */
+    static final String ACCEPT_CH = "Sec-CH-DPR, Sec-CH-Width, Sec-CH-Viewport-Width, DPR, Width, Viewport-Width";
+
+    /** En-têtes de requête dont dépend une variante dimensionnée par les indications. */
+    static final String VARY = ACCEPT_CH + ", Save-Data";
+
+    /** Densité maximale prise en compte : au-delà, le gain de netteté n'est plus perceptible. */
+    static final double MAX_DPR = 4.0;
+
+    /**
+     * Dimensions effectives d'une variante, après application des indications.
+     */
+    record Size(Integer width, Integer height) {
+    }
+
+    /**
+     * Lit les indications d'une requête.
+     *
+     * @param headers en-têtes de la requête
+     * @return les indications (éventuellement toutes absentes)
+     */
+    static ClientHints from(HttpHeaders headers) {
+        return from(headers::getHeaderString);
+    }
+
+    /**
+     * Lit les indications à partir d'un accès aux en-têtes par nom.
+     *
+     * @param headers valeur d'un en-tête par nom ({@code null} si absent)
+     * @return les indications (éventuellement toutes absentes)
+     */
+    static ClientHints from(Function<String, String> headers) {
+        Double dpr = parseDpr(header(headers, "Sec-CH-DPR", "DPR"));
+        Integer width = parsePixels(header(headers, "Sec-CH-Width", "Width"));
+        Integer viewportWidth = parsePixels(header(headers, "Sec-CH-Viewport-Width", "Viewport-Width"));
+        boolean saveData = "on".equalsIgnoreCase(trim(headers.apply("Save-Data")));
+        return new ClientHints(dpr, width, viewportWidth, saveData);
+    }
+
+    /**
+     * Calcule les dimensions à générer à partir des dimensions demandées (pixels CSS).
+     * <p>
+     * - {@code Width} donne directement la largeur physique d'affichage : elle remplace {@code w}
+     *   (la hauteur suit, pour conserver le ratio demandé),
+     * - sinon, les dimensions sont multipliées par {@code DPR},
+     * - {@code Viewport-Width × DPR} borne la largeur : une image n'a pas à dépasser l'écran.
+     * <p>
+     * Le résultat est borné à {@code maxDimension} en conservant le ratio. Des dimensions demandées
+     * hors limites sont renvoyées telles quelles, pour être refusées par la validation.
+     *
+     * @param w            largeur demandée (optionnelle)
+     * @param h            hauteur demandée (optionnelle)
+     * @param maxDimension dimension maximale d'une variante
+     * @return les dimensions effectives
+     */
+    Size resolve(Integer w, Integer h, int maxDimension) {
+        if (w == null && h == null) return new Size(null, null);
+        if (outOfRange(w, maxDimension) || outOfRange(h, maxDimension)) return new Size(w, h);
+
+        double density = dpr != null ? dpr : 1.0;
+        double factor = width != null && w != null ? (double) width / w : density;
+        if (viewportWidth != null && w != null) {
+            factor = Math.min(factor, viewportWidth * density / w);
+        }
+
+        double scaledW = w != null ? w * factor : 0;
+        double scaledH = h != null ? h * factor : 0;
+        double largest = Math.max(scaledW, scaledH);
+        if (largest > maxDimension) {
+            scaledW *= maxDimension / largest;
+            scaledH *= maxDimension / largest;
+        }
+        return new Size(
+                w != null ? (int) Math.max(1, Math.round(scaledW)) : null,
+                h != null ? (int) Math.max(1, Math.round(scaledH)) : null);
+    }
+
+    /**
+     * Qualité à appliquer : plafonnée pour un client {@code Save-Data}.
+     *
+     * @param q           qualité demandée (optionnelle)
+     * @param saveDataCap qualité maximale en mode {@code Save-Data}
+     * @return la qualité effective, ou {@code null} pour la qualité par défaut
+     */
+    Integer quality(Integer q, int saveDataCap) {
+        if (!saveData) return q;
+        return q == null ? saveDataCap : Math.min(q, saveDataCap);
+    }
+
+    private static boolean outOfRange(Integer dimension, int maxDimension) {
+        return dimension != null && (dimension < 1 || dimension > maxDimension);
+    }
+
+    private static String header(Function<String, String> headers, String name, String legacyName) {
+        String value = trim(headers.apply(name));
+        return value != null ? value : trim(headers.apply(legacyName));
+    }
+
+    private static String trim(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static Double parseDpr(String value) {
+        if (value == null) return null;
+        try {
+            double dpr = Double.parseDouble(value);
+            return dpr > 0 && Double.isFinite(dpr) ? Math.min(dpr, MAX_DPR) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Integer parsePixels(String value) {
+        if (value == null) return null;
+        try {
+            int pixels = Integer.parseInt(value);
+            return pixels > 0 ? pixels : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
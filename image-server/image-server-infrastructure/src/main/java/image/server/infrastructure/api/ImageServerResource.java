@@ -1,11 +1,18 @@
 package image.server.infrastructure.api;
 
+import image.server.application.spi.ImageEncoder;
+import image.server.application.spi.ImageEncoderRegistry;
 import image.server.application.usecase.DeleteImageUseCase;
+import image.server.application.usecase.ImageMetadataUseCase;
 import image.server.application.usecase.PreviewImageUseCase;
+import image.server.application.usecase.SrcsetImageUseCase;
 import image.server.application.usecase.UploadImageUseCase;
 import image.server.infrastructure.adapter.ImageServerAdapter;
-import image.server.domain.UploadResult;
+import image.server.domain.ImageContent;
+import image.server.domain.ResponsiveVariant;
+import image.server.domain.SrcsetManifest;
 import image.server.infrastructure.config.ImageConfig;
+import image.server.infrastructure.config.SizeLadder;
 import io.quarkus.runtime.StartupEvent;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.event.Observes;
@@ -13,16 +20,26 @@ import jakarta.inject.Inject;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.*;
+import org.jboss.resteasy.reactive.PathPart;
 import org.jboss.resteasy.reactive.multipart.FileUpload;
 import org.jboss.resteasy.reactive.RestForm;
+import org.jboss.resteasy.reactive.RestHeader;
 import org.jboss.resteasy.reactive.RestPath;
 import org.jboss.resteasy.reactive.RestQuery;
 
 import java.io.IOException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.HexFormat;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Path("/${image.route-prefix:images}")
 public class ImageServerResource {
@@ -36,12 +53,24 @@ public class ImageServerResource {
     @Inject
     UploadImageUseCase uploadImageUseCase;
 
+    @Inject
+    SrcsetImageUseCase srcsetImageUseCase;
+
+    @Inject
+    ImageMetadataUseCase imageMetadataUseCase;
+
     @Inject
     ImageServerAdapter imageServerAdapter;
 
     @Inject
     ImageConfig imageConfig;
 
+    @Inject
+    ImageEncoderRegistry encoderRegistry;
+
+    @Inject
+    SizeLadder sizeLadder;
+
     void onStart(@Observes StartupEvent event) throws IOException {
         imageServerAdapter.ensureDirectories();
     }
@@ -57,14 +86,31 @@ public class ImageServerResource {
      * Stratégie de cache disque :
      * - Sans params resize → sert l'original depuis uploads/
      * - Avec params resize → vérifie cache/ d'abord, génère + sauvegarde si absent
+     * - Les fichiers disque sont transmis par sendfile (zéro copie), sans passer par le heap
+     * <p>
+     * Revalidation : l'ETag est dérivé de la clé de cache, de la taille et de la date du fichier.
+     * Les requêtes conditionnelles (If-None-Match / If-Modified-Since) reçoivent un 304
+     * sans que le contenu de l'image ne soit transmis.
+     * <p>
+     * Reprise de téléchargement : pour les fichiers sur disque, l'en-tête Range (une ou plusieurs
+     * plages, éventuellement conditionné par If-Range) produit un 206 lu directement depuis le fichier.
      * <p>
      * Query params :
      * w       (int)    – largeur cible en px        (max 5000)
      * h       (int)    – hauteur cible en px        (max 5000)
      * crop    (bool)   – recadrage centré exact w×h (défaut: false → fit)
-     * q       (int)    – qualité 1-100              (défaut: 85)
-     * fmt     (string) – format de sortie (appliqué uniquement si resize) : jpg | png | webp
+     * q       (int)    – qualité 1-100              (défaut: selon le profil puis le format, 85 en jpg)
+     * fmt     (string) – format de sortie (appliqué uniquement si resize) : jpg | png | webp | auto
+     *                    auto : format le plus compact accepté par le client (en-tête Accept), avec Vary: Accept
+     * profile (string) – profil d'encodage (image.profiles.*) : progressif, Huffman optimisé, chroma, deflate PNG…
      * upscale (bool)   – autorise l'agrandissement  (défaut: false)
+     * <p>
+     * Avec {@code image.size-ladder}, w et h sont alignés sur le palier supérieur ;
+     * avec {@code image.size-ladder-redirect}, une dimension hors palier reçoit un 302 vers l'URL du palier.
+     * <p>
+     * Avec {@code image.client-hints}, w et h sont exprimés en pixels CSS et ajustés par les en-têtes
+     * DPR / Width / Viewport-Width, la qualité est plafonnée si Save-Data: on ; les réponses portent
+     * Accept-CH, et les variantes Vary sur ces en-têtes.
      */
     @GET
     @Path("/{path: .+}")
@@ -73,21 +119,127 @@ public class ImageServerResource {
             @RestQuery("w") Integer w,
             @RestQuery("h") Integer h,
             @RestQuery("crop") @DefaultValue("false") boolean crop,
-            @RestQuery("q") @DefaultValue("85") int q,
+            @RestQuery("q") Integer q,
             @RestQuery("fmt") @DefaultValue("jpg") String fmt,
-            @RestQuery("upscale") @DefaultValue("false") boolean upscale
+            @RestQuery("profile") String profile,
+            @RestQuery("upscale") @DefaultValue("false") boolean upscale,
+            @RestHeader("Range") String range,
+            @RestHeader("If-Range") String ifRange,
+            @RestHeader("Accept") String accept,
+            @RestHeader("If-None-Match") String ifNoneMatch,
+            @Context Request request,
+            @Context UriInfo uriInfo,
+            @Context HttpHeaders headers
     ) {
-        return previewImageUseCase.execute(subPath, w, h, crop, q, fmt, upscale)
-                .map(bytes -> {
-                    String outputFmt = (w == null && h == null)
-                            ? sanitizeFormat(getExtension(subPath))
-                            : sanitizeFormat(fmt);
-                    return buildImageResponse(bytes, outputFmt);
+        boolean resize = w != null || h != null;
+        if (resize && sizeLadder.redirect()) {
+            Response canonical = redirectToLadder(uriInfo, w, h, crop);
+            if (canonical != null) {
+                return Uni.createFrom().item(canonical);
+            }
+        }
+        // Le format négocié fait partie de la clé de cache : chaque format a sa propre variante.
+        ImageEncoder encoder = resize ? encoderRegistry.resolve(fmt, accept) : null;
+        String outputFmt = resize ? encoder.format() : fmt;
+        String mediaType = resize ? encoder.mediaType() : mediaTypeFor(sanitizeFormat(getExtension(subPath)));
+        String negotiated = resize && ImageEncoderRegistry.AUTO.equalsIgnoreCase(fmt) ? "Accept" : null;
+
+        // Après la redirection : l'URL canonique ne dépend que des paramètres explicites.
+        boolean hinted = resize && imageConfig.clientHints();
+        if (hinted) {
+            ClientHints hints = ClientHints.from(headers);
+            ClientHints.Size size = hints.resolve(w, h, imageConfig.maxDimension());
+            w = size.width();
+            h = size.height();
+            q = hints.quality(q, imageConfig.saveDataQuality());
+        }
+        String vary = !hinted ? negotiated
+                : negotiated == null ? ClientHints.VARY
+                : negotiated + ", " + ClientHints.VARY;
+
+        return previewImageUseCase.execute(subPath, w, h, crop, q, outputFmt, profile, upscale, ifNoneMatch)
+                .map(content -> {
+                    Response notModified = evaluatePreconditions(request, content, vary);
+                    if (notModified != null) {
+                        return notModified;
+                    }
+                    if (content.isFile() && range != null && ByteRange.ifRangeMatches(ifRange, content.etag(), content.lastModified())) {
+                        Response partial = buildRangeResponse(content, mediaType, vary, range);
+                        if (partial != null) {
+                            return partial;
+                        }
+                    }
+                    return buildImageResponse(content, mediaType, vary);
                 })
                 .onFailure(WebApplicationException.class)
                 .recoverWithItem(t -> ((WebApplicationException) t).getResponse());
     }
 
+    /**
+     * GET /images/_srcset/{path}?widths=320,640,1280
+     * <p>
+     * Génère en une fois les variantes en largeur d'une image (un seul décodage de la source,
+     * chaque largeur étant réduite à partir de la précédente) et renvoie le manifeste srcset :
+     * URL, dimensions et taille de chaque variante.
+     * <p>
+     * Les URL du manifeste pointent vers {@code GET /images/{path}?w=…} : elles sont servies
+     * depuis le cache sans nouveau transcodage.
+     * <p>
+     * Query params :
+     * widths  (string) – largeurs séparées par des virgules (requis)
+     * q, fmt, profile, upscale – comme pour {@link #serveImage} ; avec fmt=auto, les variantes
+     *                    pré-générées suivent l'en-tête Accept de cette requête
+     */
+    @GET
+    @Path("/_srcset/{path: .+}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Response> srcset(
+            @RestPath("path") String subPath,
+            @RestQuery("widths") String widths,
+            @RestQuery("q") Integer q,
+            @RestQuery("fmt") @DefaultValue("jpg") String fmt,
+            @RestQuery("profile") String profile,
+            @RestQuery("upscale") @DefaultValue("false") boolean upscale,
+            @RestHeader("Accept") String accept
+    ) {
+        List<Integer> requestedWidths;
+        try {
+            requestedWidths = parseWidths(widths);
+        } catch (BadRequestException e) {
+            return Uni.createFrom().item(e.getResponse());
+        }
+        String outputFmt = encoderRegistry.resolve(fmt, accept).format();
+
+        return srcsetImageUseCase.execute(subPath, requestedWidths, q, outputFmt, profile, upscale)
+                .map(variants -> Response.ok(buildSrcsetManifest(subPath, variants, q, fmt, profile, upscale))
+                        .type(MediaType.APPLICATION_JSON)
+                        .build())
+                .onFailure(WebApplicationException.class)
+                .recoverWithItem(t -> ((WebApplicationException) t).getResponse());
+    }
+
+    /**
+     * GET /images/_meta/{path}
+     * <p>
+     * Métadonnées d'un original : dimensions (orientées) et aperçu BlurHash, de quoi réserver
+     * la place de l'image et afficher un aperçu flou sans attendre la moindre variante.
+     * Calculées à l'upload ; pour un original plus ancien, à la première demande.
+     */
+    @GET
+    @Path("/_meta/{path: .+}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Response> metadata(
+            @RestPath("path") String subPath
+    ) {
+        return imageMetadataUseCase.execute(subPath)
+                .map(metadata -> Response.ok(metadata)
+                        .type(MediaType.APPLICATION_JSON)
+                        .header("Cache-Control", "public, max-age=" + cacheSeconds())
+                        .build())
+                .onFailure(WebApplicationException.class)
+                .recoverWithItem(t -> ((WebApplicationException) t).getResponse());
+    }
+
     /**
      * DELETE /images/{path}
      * Supprime l'original et tous ses variants cachés.
@@ -113,8 +265,8 @@ public class ImageServerResource {
             @RestForm("folder") @DefaultValue("") String folder
     ) {
         return uploadImageUseCase.execute(file, folder)
-                .map(url -> Response.status(Response.Status.CREATED)
-                        .entity(new UploadResult(url, null))
+                .map(result -> Response.status(Response.Status.CREATED)
+                        .entity(result)
                         .type(MediaType.APPLICATION_JSON)
                         .build())
                 .onFailure(WebApplicationException.class)
@@ -122,25 +274,173 @@ public class ImageServerResource {
     }
 
 
-    private Response buildImageResponse(byte[] bytes, String outputFmt) {
-        return Response.ok(bytes)
-                .type(mediaTypeFor(outputFmt))
-                .header("Cache-Control", "public, max-age=" + cacheSeconds() + ", immutable")
-                .header("ETag", '"' + sha1(bytes) + '"')
+    /**
+     * Redirige vers l'URL dont les dimensions sont alignées sur l'échelle de tailles.
+     * La redirection ne dépend que de la configuration : elle est cachable comme les images.
+     *
+     * @return la redirection, ou {@code null} si les dimensions sont déjà canoniques
+     */
+    private Response redirectToLadder(UriInfo uriInfo, Integer w, Integer h, boolean crop) {
+        SizeLadder.Size snapped = sizeLadder.snap(w, h, crop);
+        Integer snappedW = snapped.width();
+        Integer snappedH = snapped.height();
+        if (Objects.equals(snappedW, w) && Objects.equals(snappedH, h)) {
+            return null;
+        }
+        UriBuilder location = uriInfo.getRequestUriBuilder();
+        if (w != null) location.replaceQueryParam("w", snappedW);
+        if (h != null) location.replaceQueryParam("h", snappedH);
+        return Response.status(Response.Status.FOUND)
+                .location(location.build())
+                .header("Cache-Control", "public, max-age=" + cacheSeconds())
                 .build();
     }
 
-    private long cacheSeconds() {
-        return TimeUnit.DAYS.toSeconds(imageConfig.cacheDays());
+    private static List<Integer> parseWidths(String widths) {
+        if (widths == null || widths.isBlank()) {
+            throw new BadRequestException("Query parameter 'widths' is required.");
+        }
+        try {
+            return Arrays.stream(widths.split(","))
+                    .map(String::trim)
+                    .map(Integer::valueOf)
+                    .toList();
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid widths: " + widths);
+        }
     }
 
-    private String sha1(byte[] data) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-1");
-            return HexFormat.of().formatHex(md.digest(data));
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("SHA-1 not available", e);
+    /**
+     * Construit le manifeste srcset. Les URL reprennent le {@code fmt} demandé (et non le format
+     * négocié) pour que la négociation s'applique à nouveau quand le navigateur les charge.
+     */
+    private SrcsetManifest buildSrcsetManifest(
+            String subPath, List<ResponsiveVariant> variants, Integer q, String fmt, String profile, boolean upscale
+    ) {
+        StringBuilder query = new StringBuilder("&fmt=").append(fmt);
+        if (q != null) query.append("&q=").append(q);
+        if (profile != null) query.append("&profile=").append(profile);
+        if (upscale) query.append("&upscale=true");
+
+        List<SrcsetManifest.Candidate> candidates = variants.stream()
+                .map(variant -> new SrcsetManifest.Candidate(
+                        "/" + imageConfig.routePrefix() + "/" + subPath + "?w=" + sizeLadder.snap(variant.width()) + query,
+                        variant.width(), variant.height(), variant.length()))
+                .toList();
+        String srcset = candidates.stream()
+                .map(candidate -> candidate.url() + " " + candidate.width() + "w")
+                .collect(Collectors.joining(", "));
+        return new SrcsetManifest(srcset, candidates);
+    }
+
+    private Response buildImageResponse(ImageContent content, String mediaType, String vary) {
+        // Fichier : l'entité Path est envoyée par sendfile, sans copie en mémoire.
+        Response.ResponseBuilder builder = content.isFile()
+                ? Response.ok(content.file()).header("Accept-Ranges", "bytes")
+                : Response.ok(content.bytes());
+        return withValidators(builder, content, vary)
+                .type(mediaType)
+                .build();
+    }
+
+    /**
+     * Construit une réponse partielle (206) ou 416 à partir de l'en-tête Range.
+     * <p>
+     * Une plage unique est envoyée par sendfile sur la région du fichier ;
+     * plusieurs plages produisent un corps {@code multipart/byteranges} copié par canal,
+     * sans jamais charger l'image complète en mémoire.
+     *
+     * @return la réponse partielle, ou {@code null} si l'en-tête doit être ignoré
+     */
+    private Response buildRangeResponse(ImageContent content, String mediaType, String vary, String rangeHeader) {
+        long total = content.length();
+        List<ByteRange> ranges = ByteRange.parse(rangeHeader, total);
+        if (ranges == null) {
+            return null;
+        }
+        if (ranges.isEmpty()) {
+            return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header("Content-Range", "bytes */" + total)
+                    .build();
         }
+
+        if (ranges.size() == 1) {
+            ByteRange single = ranges.get(0);
+            return withValidators(Response.status(Response.Status.PARTIAL_CONTENT), content, vary)
+                    .entity(new PathPart(content.file(), single.start(), single.length()))
+                    .type(mediaType)
+                    .header("Accept-Ranges", "bytes")
+                    .header("Content-Range", single.contentRange(total))
+                    .build();
+        }
+
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        StreamingOutput body = out -> {
+            try (FileChannel channel = FileChannel.open(content.file(), StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                for (ByteRange part : ranges) {
+                    out.write(("\r\n--" + boundary
+                            + "\r\nContent-Type: " + mediaType
+                            + "\r\nContent-Range: " + part.contentRange(total)
+                            + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                    long position  = part.start();
+                    long remaining = part.length();
+                    while (remaining > 0) {
+                        long sent = channel.transferTo(position, remaining, target);
+                        if (sent <= 0) throw new IOException("Unexpected end of file: " + content.file());
+                        position  += sent;
+                        remaining -= sent;
+                    }
+                }
+                out.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+            }
+        };
+        return withValidators(Response.status(Response.Status.PARTIAL_CONTENT), content, vary)
+                .entity(body)
+                .type("multipart/byteranges; boundary=" + boundary)
+                .header("Accept-Ranges", "bytes")
+                .build();
+    }
+
+    /**
+     * Évalue If-None-Match / If-Modified-Since à partir des seules métadonnées du contenu.
+     *
+     * @return une réponse 304 si le client possède déjà la bonne version, {@code null} sinon
+     */
+    private Response evaluatePreconditions(Request request, ImageContent content, String vary) {
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(
+                lastModifiedDate(content), new EntityTag(content.etag()));
+        return notModified == null ? null : withValidators(notModified, content, vary).build();
+    }
+
+    /**
+     * Ajoute les validateurs et en-têtes de cache HTTP.
+     *
+     * @param vary en-têtes de requête dont dépend la représentation (ex. {@code Accept}), ou {@code null}
+     */
+    private Response.ResponseBuilder withValidators(Response.ResponseBuilder builder, ImageContent content, String vary) {
+        if (vary != null) {
+            builder.header("Vary", vary);
+        }
+        if (imageConfig.clientHints()) {
+            builder.header("Accept-CH", ClientHints.ACCEPT_CH);
+        }
+        return builder
+                .tag(new EntityTag(content.etag()))
+                .lastModified(lastModifiedDate(content))
+                .header("Cache-Control", "public, max-age=" + cacheSeconds() + ", immutable");
+    }
+
+    /**
+     * Les dates HTTP ont une précision à la seconde : on tronque pour que
+     * If-Modified-Since corresponde exactement au Last-Modified envoyé.
+     */
+    private Date lastModifiedDate(ImageContent content) {
+        return new Date(content.lastModified() / 1000 * 1000);
+    }
+
+    private long cacheSeconds() {
+        return TimeUnit.DAYS.toSeconds(imageConfig.cacheDays());
     }
 
     private String getExtension(String filename) {
@@ -0,0 +1,69 @@
+package image.server.infrastructure.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Organisation des fichiers dans le cache disque des variantes.
+ * <p>
+ * Les variantes sont réparties sur deux niveaux de sous-dossiers dérivés d'un hash
+ * de la base de clé (chemin de l'original) : {@code <cache>/ab/cd/<clé>}.
+ * Toutes les variantes d'une même image partagent donc le même dossier,
+ * et chaque dossier reste petit quelle que soit la taille du cache (65 536 dossiers feuilles).
+ */
+public final class CacheLayout {
+
+    /**
+     * Forme des noms de fichiers produits par {@code ImageServerAdapter#buildCacheKey} :
+     * {@code <base>_w<w|x>_h<h|x>_crop<0|1>_q<q>[_p<profil>].<fmt>}.
+     */
+    private static final Pattern CACHE_KEY = Pattern.compile("^(.+)_w(?:\\d+|x)_h(?:\\d+|x)_crop[01]_q\\d+(?:_p[a-z0-9-]+)?\\.[a-z0-9]+$");
+
+    private CacheLayout() {
+    }
+
+    /**
+     * Résout l'emplacement d'une variante dans le cache.
+     *
+     * @param cacheBase racine du cache
+     * @param keyBase   base de clé de l'original (voir {@code buildCacheKeyBase})
+     * @param cacheKey  clé complète de la variante (nom du fichier)
+     * @return chemin normalisé de la variante
+     */
+    public static Path resolve(Path cacheBase, String keyBase, String cacheKey) {
+        return shardDirectory(cacheBase, keyBase).resolve(cacheKey).normalize();
+    }
+
+    /**
+     * @return le dossier qui contient toutes les variantes d'un original
+     */
+    public static Path shardDirectory(Path cacheBase, String keyBase) {
+        String hash = sha1Hex(keyBase);
+        return cacheBase.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4));
+    }
+
+    /**
+     * Retrouve la base de clé à partir d'un nom de fichier de variante.
+     *
+     * @param fileName nom du fichier dans le cache
+     * @return la base de clé, ou {@code null} si le nom ne correspond pas à une variante
+     */
+    public static String keyBaseOf(String fileName) {
+        Matcher matcher = CACHE_KEY.matcher(fileName);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    private static String sha1Hex(String value) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            return HexFormat.of().formatHex(md.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+}
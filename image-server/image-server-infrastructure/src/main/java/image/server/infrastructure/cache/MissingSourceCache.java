@@ -0,0 +1,82 @@
+package image.server.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import image.server.infrastructure.config.ImageConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+/**
+ * Cache négatif des originaux introuvables.
+ * <p>
+ * Les requêtes vers des images supprimées ou inexistantes (pages HTML périmées, robots)
+ * sont répondues en {@code 404} par une simple recherche en mémoire, sans accès au disque,
+ * pendant {@code image.missing-source-ttl}.
+ * <p>
+ * Une entrée est retirée dès qu'un upload crée le chemin correspondant ; un fichier
+ * ajouté hors de l'API n'est visible qu'à l'expiration de l'entrée.
+ */
+@ApplicationScoped
+public class MissingSourceCache {
+
+    private static final Logger LOG = Logger.getLogger(MissingSourceCache.class);
+
+    @Inject
+    ImageConfig config;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private Cache<String, Boolean> cache;
+    private Counter hits;
+
+    @PostConstruct
+    void init() {
+        hits = meterRegistry.counter("image.missing_cache.hits");
+
+        if (config.missingSourceTtl().isZero() || config.missingSourceMaxEntries() <= 0) {
+            LOG.info("Missing source cache disabled.");
+            return;
+        }
+
+        cache = Caffeine.newBuilder()
+                .maximumSize(config.missingSourceMaxEntries())
+                .expireAfterWrite(config.missingSourceTtl())
+                .build();
+    }
+
+    /**
+     * @param subPath chemin relatif de l'original, tel que demandé
+     * @return {@code true} si l'original est connu comme absent
+     */
+    public boolean isMissing(String subPath) {
+        if (cache == null || subPath == null) return false;
+        boolean missing = cache.getIfPresent(subPath) != null;
+        if (missing) hits.increment();
+        return missing;
+    }
+
+    /**
+     * Mémorise un original introuvable.
+     *
+     * @param subPath chemin relatif de l'original, tel que demandé
+     */
+    public void markMissing(String subPath) {
+        if (cache == null || subPath == null) return;
+        cache.put(subPath, Boolean.TRUE);
+    }
+
+    /**
+     * Oublie un chemin qui vient d'être créé.
+     *
+     * @param subPath chemin relatif de l'original
+     */
+    public void invalidate(String subPath) {
+        if (cache == null) return;
+        cache.invalidate(subPath);
+    }
+}
@@ -0,0 +1,42 @@
+package image.server.infrastructure.cache;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Regroupe les exécutions concurrentes d'une même opération identifiée par une clé.
+ * <p>
+ * Tant qu'une opération est en cours pour une clé, les appelants suivants s'abonnent
+ * au même résultat au lieu de relancer le travail : un seul calcul par clé,
+ * et chaque appelant reçoit son résultat (ou son échec).
+ * <p>
+ * L'entrée est retirée dès que l'opération se termine : un appel ultérieur relance
+ * donc une nouvelle exécution (qui trouvera normalement le résultat en cache).
+ *
+ * @param <T> type du résultat partagé
+ */
+public final class SingleFlight<T> {
+
+    private final ConcurrentHashMap<String, Uni<T>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Exécute l'opération pour la clé, ou rejoint l'exécution déjà en cours.
+     *
+     * @param key    clé identifiant le résultat attendu
+     * @param action fabrique de l'opération, appelée uniquement par le premier appelant
+     * @return résultat partagé entre tous les appelants concurrents de la clé
+     */
+    public Uni<T> execute(String key, Supplier<Uni<T>> action) {
+        return Uni.createFrom().deferred(() -> inFlight.computeIfAbsent(key, k -> {
+            AtomicReference<Uni<T>> self = new AtomicReference<>();
+            Uni<T> shared = action.get()
+                    .onTermination().invoke(() -> inFlight.remove(k, self.get()))
+                    .memoize().indefinitely();
+            self.set(shared);
+            return shared;
+        }));
+    }
+}
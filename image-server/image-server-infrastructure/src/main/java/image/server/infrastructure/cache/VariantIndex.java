@@ -0,0 +1,223 @@
+package image.server.infrastructure.cache;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index en mémoire des variantes présentes dans le cache disque.
+ * <p>
+ * Pour chaque variante, l'index conserve sa taille et sa date d'écriture, dans l'ordre
+ * des derniers accès (LRU). Les variantes sont aussi regroupées par original
+ * (base de clé, voir {@code buildCacheKeyBase}).
+ * <p>
+ * L'index est reconstruit au démarrage par un unique parcours du cache,
+ * puis tenu à jour à chaque écriture, lecture, suppression et nettoyage :
+ * - supprimer les variantes d'une image ne coûte que le nombre de ses variantes,
+ * - l'éviction par budget ou par âge se fait sans parcourir le disque.
+ */
+@ApplicationScoped
+public class VariantIndex {
+
+    private static final Logger LOG = Logger.getLogger(VariantIndex.class);
+
+    /** Suffixe des fichiers temporaires d'encodage, publiés par renommage atomique. */
+    public static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Métadonnées d'une variante en cache.
+     *
+     * @param path         chemin absolu et normalisé du fichier
+     * @param keyBase      base de clé de l'original
+     * @param size         taille en octets
+     * @param lastModified date d'écriture (epoch millis)
+     */
+    public record Entry(Path path, String keyBase, long size, long lastModified) {
+    }
+
+    /** Variantes dans l'ordre des accès, de la moins récemment utilisée à la plus récente. */
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(1024, 0.75f, true);
+    private final Map<String, Set<Path>> variantsByKeyBase = new HashMap<>();
+    private long totalBytes;
+
+    /**
+     * Reconstruit l'index à partir du contenu du cache disque.
+     * <p>
+     * Faute d'historique d'accès, l'ordre LRU initial suit la date d'écriture des fichiers.
+     * <p>
+     * Les fichiers temporaires d'encodage ({@code *.tmp}) laissés par un arrêt brutal ne seraient
+     * jamais indexés, donc jamais évincés : appelé au démarrage, avant toute génération,
+     * ce parcours les supprime.
+     *
+     * @param cacheBase racine du cache
+     */
+    public void rebuild(Path cacheBase) {
+        List<Entry> found = new ArrayList<>();
+        int[] strays = {0};
+        try {
+            Files.walkFileTree(cacheBase, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                        try {
+                            Files.deleteIfExists(file);
+                            strays[0]++;
+                        } catch (IOException e) {
+                            LOG.warnf("Could not delete stray temporary file %s: %s", file, e.getMessage());
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                    Entry entry = entryOf(file, attrs.size(), attrs.lastModifiedTime().toMillis());
+                    if (attrs.isRegularFile() && entry != null) found.add(entry);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            LOG.warnf(e, "Could not rebuild variant index from: %s", cacheBase);
+        }
+        found.sort(Comparator.comparingLong(Entry::lastModified));
+
+        synchronized (this) {
+            entries.clear();
+            variantsByKeyBase.clear();
+            totalBytes = 0;
+            found.forEach(this::add);
+            LOG.infof("Variant index rebuilt — %d variant(s), %d byte(s), %d stray temporary file(s) deleted.",
+                    entries.size(), totalBytes, strays[0]);
+        }
+    }
+
+    /**
+     * Enregistre (ou remplace) un fichier de variante. Les fichiers qui ne sont pas des variantes sont ignorés.
+     *
+     * @param variant      chemin absolu et normalisé du fichier
+     * @param size         taille en octets
+     * @param lastModified date d'écriture (epoch millis)
+     */
+    public void register(Path variant, long size, long lastModified) {
+        Entry entry = entryOf(variant, size, lastModified);
+        if (entry == null) return;
+        synchronized (this) {
+            remove(variant);
+            add(entry);
+        }
+    }
+
+    /**
+     * Marque une variante comme récemment utilisée. Sans effet si elle n'est pas indexée.
+     *
+     * @param variant chemin absolu et normalisé du fichier
+     */
+    public synchronized void touch(Path variant) {
+        entries.get(variant);
+    }
+
+    /**
+     * Retire et renvoie toutes les variantes d'un original.
+     *
+     * @param keyBase base de clé de l'original
+     * @return les fichiers de variantes connus (éventuellement vide)
+     */
+    public synchronized Set<Path> removeAll(String keyBase) {
+        Set<Path> variants = variantsByKeyBase.get(keyBase);
+        if (variants == null) return Set.of();
+
+        Set<Path> removed = new HashSet<>(variants);
+        removed.forEach(this::remove);
+        return removed;
+    }
+
+    /**
+     * Retire de l'index les variantes les moins récemment utilisées
+     * jusqu'à ramener le total sous la taille cible.
+     *
+     * @param targetBytes taille totale visée
+     * @return les variantes retirées, à supprimer du disque par l'appelant
+     */
+    public synchronized List<Entry> pollLeastRecentlyUsed(long targetBytes) {
+        List<Entry> polled = new ArrayList<>();
+        Iterator<Entry> lru = entries.values().iterator();
+        while (totalBytes > targetBytes && lru.hasNext()) {
+            Entry entry = lru.next();
+            lru.remove();
+            detach(entry);
+            polled.add(entry);
+        }
+        return polled;
+    }
+
+    /**
+     * Retire de l'index les variantes écrites avant la date limite.
+     *
+     * @param cutoffMillis date limite (epoch millis)
+     * @return les variantes retirées, à supprimer du disque par l'appelant
+     */
+    public synchronized List<Entry> pollWrittenBefore(long cutoffMillis) {
+        List<Entry> polled = new ArrayList<>();
+        Iterator<Entry> all = entries.values().iterator();
+        while (all.hasNext()) {
+            Entry entry = all.next();
+            if (entry.lastModified() < cutoffMillis) {
+                all.remove();
+                detach(entry);
+                polled.add(entry);
+            }
+        }
+        return polled;
+    }
+
+    /**
+     * @return taille totale des variantes indexées, en octets
+     */
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    private static Entry entryOf(Path variant, long size, long lastModified) {
+        String keyBase = CacheLayout.keyBaseOf(variant.getFileName().toString());
+        return keyBase == null ? null : new Entry(variant, keyBase, size, lastModified);
+    }
+
+    private void add(Entry entry) {
+        entries.put(entry.path(), entry);
+        variantsByKeyBase.computeIfAbsent(entry.keyBase(), k -> new HashSet<>()).add(entry.path());
+        totalBytes += entry.size();
+    }
+
+    private void remove(Path variant) {
+        Entry entry = entries.remove(variant);
+        if (entry != null) detach(entry);
+    }
+
+    /**
+     * Retire une entrée déjà sortie de {@link #entries} des structures annexes.
+     */
+    private void detach(Entry entry) {
+        totalBytes -= entry.size();
+        Set<Path> variants = variantsByKeyBase.get(entry.keyBase());
+        if (variants != null) {
+            variants.remove(entry.path());
+            if (variants.isEmpty()) variantsByKeyBase.remove(entry.keyBase());
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package image.server.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import image.server.domain.ImageContent;
+import image.server.infrastructure.config.ImageConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache mémoire (L1) des variantes d'images, placé devant le cache disque.
+ * <p>
+ * Le cache est borné en octets et s'appuie sur la politique W-TinyLFU de Caffeine :
+ * une variante n'est admise que si elle est plus fréquemment demandée que celle
+ * qu'elle évincerait, ce qui protège les vignettes chaudes des rafales de requêtes uniques.
+ * <p>
+ * Les clés sont celles produites par {@code buildCacheKey} dans {@link image.server.infrastructure.adapter.ImageServerAdapter}.
+ * Elles sont aussi regroupées par original : la suppression d'une image ne retire que ses propres entrées,
+ * y compris celles mémorisées sous une clé demandée différente de la clé du fichier.
+ * Chaque entrée retient enfin le fichier de cache disque dont elle est la copie : la suppression
+ * de ce fichier (rétention, budget disque) retire aussi toutes les clés qui y mènent.
+ */
+@ApplicationScoped
+public class VariantMemoryCache {
+
+    private static final Logger LOG = Logger.getLogger(VariantMemoryCache.class);
+
+    @Inject
+    ImageConfig config;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /**
+     * Variante gardée en mémoire.
+     *
+     * @param file    fichier de cache disque dont le contenu est la copie
+     * @param content contenu encodé de la variante
+     */
+    public record Entry(Path file, ImageContent content) {
+    }
+
+    private Cache<String, Entry> cache;
+
+    /** Clés présentes par base de clé ; les ensembles ne sont modifiés que dans {@code compute}. */
+    private final Map<String, Set<String>> keysByBase = new ConcurrentHashMap<>();
+
+    /** Clés présentes par fichier de cache disque ; mêmes règles que {@link #keysByBase}. */
+    private final Map<Path, Set<String>> keysByFile = new ConcurrentHashMap<>();
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    @PostConstruct
+    void init() {
+        hits      = meterRegistry.counter("image.memory_cache.hits");
+        misses    = meterRegistry.counter("image.memory_cache.misses");
+        evictions = meterRegistry.counter("image.memory_cache.evictions");
+
+        if (config.memoryCacheMaxBytes() <= 0) {
+            LOG.info("Variant memory cache disabled.");
+            return;
+        }
+
+        cache = Caffeine.newBuilder()
+                .maximumWeight(config.memoryCacheMaxBytes())
+                .weigher((String key, Entry value) -> key.length() + (int) value.content().length())
+                .evictionListener((key, value, cause) -> {
+                    evictions.increment();
+                    forget(key, value);
+                })
+                .build();
+
+        Gauge.builder("image.memory_cache.bytes", cache, c -> c.policy().eviction()
+                        .map(e -> e.weightedSize().orElse(0L))
+                        .orElse(0L))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cherche une variante en mémoire.
+     *
+     * @param key clé de cache de la variante
+     * @return la variante et son fichier disque, ou {@code null} si absente (ou cache désactivé)
+     */
+    public Entry get(String key) {
+        if (cache == null) return null;
+        Entry value = cache.getIfPresent(key);
+        if (value != null) hits.increment();
+        else               misses.increment();
+        return value;
+    }
+
+    /**
+     * Propose une variante au cache. Les variantes trop volumineuses
+     * ou non chargées en mémoire sont ignorées.
+     *
+     * @param key     clé de cache de la variante (clé demandée, éventuellement différente de celle du fichier)
+     * @param file    fichier de cache disque dont le contenu est la copie
+     * @param content contenu encodé de la variante
+     */
+    public void put(String key, Path file, ImageContent content) {
+        if (cache == null || content == null || content.isFile()) return;
+        if (content.length() > config.memoryCacheMaxEntryBytes()) return;
+
+        String keyBase = CacheLayout.keyBaseOf(key);
+        if (keyBase != null) link(keysByBase, keyBase, key);
+        link(keysByFile, file, key);
+
+        Entry previous = cache.asMap().put(key, new Entry(file, content));
+        if (previous != null && !previous.file().equals(file)) unlink(keysByFile, previous.file(), key);
+    }
+
+    /**
+     * Indique si une variante de cette taille peut être admise dans le cache.
+     *
+     * @param length taille de la variante en octets
+     * @return true si le cache est actif et que la variante ne dépasse pas la taille maximale d'entrée
+     */
+    public boolean accepts(long length) {
+        return cache != null && length <= config.memoryCacheMaxEntryBytes();
+    }
+
+    /**
+     * Retire toutes les variantes d'un original.
+     *
+     * @param keyBase base de clé de l'original (voir {@code buildCacheKeyBase})
+     */
+    public void invalidateKeyBase(String keyBase) {
+        if (cache == null) return;
+        Set<String> keys = keysByBase.remove(keyBase);
+        if (keys == null) return;
+        for (String key : keys) {
+            Entry removed = cache.asMap().remove(key);
+            if (removed != null) unlink(keysByFile, removed.file(), key);
+        }
+    }
+
+    /**
+     * Retire toutes les clés menant à un fichier de cache disque supprimé.
+     *
+     * @param file fichier de cache disque (chemin absolu et normalisé)
+     */
+    public void invalidateFile(Path file) {
+        if (cache == null) return;
+        Set<String> keys = keysByFile.remove(file);
+        if (keys == null) return;
+        for (String key : keys) {
+            if (cache.asMap().remove(key) == null) continue;
+            String keyBase = CacheLayout.keyBaseOf(key);
+            if (keyBase != null) unlink(keysByBase, keyBase, key);
+        }
+    }
+
+    private void forget(String key, Entry value) {
+        if (key == null) return;
+        String keyBase = CacheLayout.keyBaseOf(key);
+        if (keyBase != null) unlink(keysByBase, keyBase, key);
+        if (value != null) unlink(keysByFile, value.file(), key);
+    }
+
+    private static <K> void link(Map<K, Set<String>> index, K group, String key) {
+        index.compute(group, (g, keys) -> {
+            Set<String> updated = keys != null ? keys : new HashSet<>();
+            updated.add(key);
+            return updated;
+        });
+    }
+
+    private static <K> void unlink(Map<K, Set<String>> index, K group, String key) {
+        index.computeIfPresent(group, (g, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+}
@@ -4,7 +4,10 @@ import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithDefault;
 import io.smallrye.config.WithName;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @ConfigMapping(prefix = "image")
 public interface ImageConfig {
@@ -29,11 +32,272 @@ public interface ImageConfig {
     @WithDefault("5000")
     int maxDimension();
 
+    /**
+     * Paliers de dimensions (en px) sur lesquels {@code w} et {@code h} sont alignés,
+     * par exemple {@code 32,64,128,256,512,1024}. Sans valeur, toute dimension est acceptée.
+     */
+    @WithName("size-ladder")
+    Optional<List<Integer>> sizeLadder();
+
+    /**
+     * Redirige ({@code 302}) une dimension hors échelle vers l'URL du palier,
+     * au lieu de servir directement la variante du palier sous l'URL demandée.
+     */
+    @WithName("size-ladder-redirect")
+    @WithDefault("false")
+    boolean sizeLadderRedirect();
+
+    /**
+     * Qualité du rééchantillonnage : {@code auto} (selon la taille de sortie et l'échelle),
+     * ou un niveau imposé à toutes les variantes : {@code fast}, {@code balanced}, {@code high}.
+     */
+    @WithName("resampling")
+    @WithDefault("auto")
+    String resampling();
+
+    /**
+     * En mode {@code auto}, plus grand côté de sortie (px) jusqu'auquel le rééchantillonnage rapide s'applique.
+     */
+    @WithName("resampling-fast-max-size")
+    @WithDefault("160")
+    int resamplingFastMaxSize();
+
+    /**
+     * En mode {@code auto}, plus grand côté de sortie (px) à partir duquel le filtre de Lanczos s'applique.
+     */
+    @WithName("resampling-high-min-size")
+    @WithDefault("1024")
+    int resamplingHighMinSize();
+
+    /**
+     * Nombre de pixels de l'image à redimensionner à partir duquel le redimensionnement est réparti
+     * en bandes sur plusieurs cœurs (hors niveau {@code fast}). {@code 0} désactive le découpage.
+     */
+    @WithName("tiled-resize-min-pixels")
+    @WithDefault("8000000")
+    long tiledResizeMinPixels();
+
+    /**
+     * Nombre de threads du pool de redimensionnement en bandes ({@code 0} = un par cœur).
+     */
+    @WithName("tiled-resize-parallelism")
+    @WithDefault("0")
+    int tiledResizeParallelism();
+
+    /**
+     * Active les Client Hints : {@code DPR}, {@code Width} et {@code Viewport-Width} ajustent
+     * les dimensions des variantes, {@code Save-Data} plafonne leur qualité.
+     */
+    @WithName("client-hints")
+    @WithDefault("false")
+    boolean clientHints();
+
+    /**
+     * Qualité maximale des variantes servies à un client {@code Save-Data: on}.
+     */
+    @WithName("save-data-quality")
+    @WithDefault("50")
+    int saveDataQuality();
+
+    /**
+     * Calcule à l'upload un aperçu BlurHash de l'original, renvoyé au client et servi par {@code /_meta}.
+     */
+    @WithName("placeholders")
+    @WithDefault("false")
+    boolean placeholders();
+
+    /**
+     * Préfixe des routes de l'API, repris dans les URL des manifestes srcset.
+     */
+    @WithName("route-prefix")
+    @WithDefault("images")
+    String routePrefix();
+
+    /**
+     * Dimension maximale (largeur ou hauteur) d'une image source, lue dans son en-tête à l'upload.
+     * Distincte de {@code max-dimension}, qui borne les variantes demandées.
+     */
+    @WithName("max-source-dimension")
+    @WithDefault("12000")
+    int maxSourceDimension();
+
+    /**
+     * Nombre maximal de pixels d'une image source : protège le décodage contre les images
+     * dont la taille décompressée est démesurée par rapport au fichier.
+     */
+    @WithName("max-source-pixels")
+    @WithDefault("50000000")  // 50 Mpx
+    long maxSourcePixels();
+
+    /**
+     * Formats proposés par la négociation {@code fmt=auto}, par ordre de préférence.
+     * Un format n'est retenu que si le client l'accepte explicitement et qu'un encodeur est disponible.
+     */
+    @WithName("negotiated-formats")
+    @WithDefault("webp")
+    List<String> negotiatedFormats();
+
+    /**
+     * Profils d'encodage nommés, sélectionnables par le paramètre {@code profile}
+     * ({@code image.profiles.<nom>.<réglage>}).
+     */
+    @WithName("profiles")
+    Map<String, Profile> profiles();
+
+    /**
+     * Profil appliqué quand la requête n'en précise pas. Sans valeur, les réglages par défaut
+     * des writers ImageIO s'appliquent.
+     */
+    @WithName("default-profile")
+    Optional<String> defaultProfile();
+
     @WithName("cache-days")
     @WithDefault("7")
     int cacheDays();
 
+    /**
+     * Stockage adressé par contenu : un contenu identique n'est stocké (et ses variantes générées)
+     * qu'une seule fois, les chemins renvoyés à l'upload pointant vers ce blob.
+     */
+    @WithName("content-addressed")
+    @WithDefault("false")
+    boolean contentAddressed();
+
+    /**
+     * Budget mémoire (en octets) du cache L1 des variantes. {@code 0} désactive le cache mémoire.
+     */
+    @WithName("memory-cache-max-bytes")
+    @WithDefault("67108864")  // 64 MB
+    long memoryCacheMaxBytes();
+
+    /**
+     * Taille maximale d'une variante admise dans le cache L1.
+     */
+    @WithName("memory-cache-max-entry-bytes")
+    @WithDefault("1048576")  // 1 MB
+    long memoryCacheMaxEntryBytes();
+
+    /**
+     * Durée pendant laquelle un original introuvable répond {@code 404} sans accès disque.
+     * {@code 0} désactive le cache négatif.
+     */
+    @WithName("missing-source-ttl")
+    @WithDefault("30s")
+    Duration missingSourceTtl();
+
+    /**
+     * Nombre maximal de chemins introuvables mémorisés.
+     */
+    @WithName("missing-source-max-entries")
+    @WithDefault("10000")
+    long missingSourceMaxEntries();
+
+    /**
+     * Variantes générées en arrière-plan après chaque upload, au format {@code LxH[:crop]}
+     * (une dimension peut être omise : {@code 400x}, {@code x300}).
+     * Elles utilisent la qualité et le format par défaut de l'endpoint de lecture.
+     */
+    @WithName("variant-presets")
+    Optional<List<String>> variantPresets();
+
+    /**
+     * Nombre maximal d'uploads en attente de pré-génération ; au-delà, les presets sont ignorés
+     * (ils seront générés à la première lecture).
+     */
+    @WithName("preset-queue-capacity")
+    @WithDefault("256")
+    int presetQueueCapacity();
+
+    @WithName("preset-workers")
+    @WithDefault("1")
+    int presetWorkers();
+
+    /**
+     * Nombre de threads du pool de transcodage. {@code 0} : un thread par cœur.
+     */
+    @WithName("transcode-workers")
+    @WithDefault("0")
+    int transcodeWorkers();
+
+    /**
+     * Nombre maximal de transcodages en attente ; au-delà, les requêtes reçoivent un {@code 503}.
+     */
+    @WithName("transcode-queue-capacity")
+    @WithDefault("64")
+    int transcodeQueueCapacity();
+
+    /**
+     * Délai (en secondes) annoncé dans l'en-tête {@code Retry-After} d'un {@code 503} pour surcharge.
+     */
+    @WithName("transcode-retry-after")
+    @WithDefault("1")
+    int transcodeRetryAfter();
+
+    /**
+     * Budget disque du cache des variantes, en octets. {@code 0} désactive l'éviction par taille
+     * (seule la rétention {@code cache-days} s'applique).
+     */
+    @WithName("cache-max-bytes")
+    @WithDefault("0")
+    long cacheMaxBytes();
+
+    /**
+     * Seuil (en % du budget) au-delà duquel l'éviction LRU se déclenche.
+     */
+    @WithName("cache-high-watermark")
+    @WithDefault("90")
+    int cacheHighWatermark();
+
+    /**
+     * Seuil (en % du budget) jusqu'auquel l'éviction LRU libère de la place.
+     */
+    @WithName("cache-low-watermark")
+    @WithDefault("75")
+    int cacheLowWatermark();
+
+    @WithName("cache-eviction-interval")
+    @WithDefault("30s")
+    String cacheEvictionInterval();
+
     @WithName("cleanup-cron")
     @WithDefault("0 0 * * * ?")
     String cleanupCron();
+
+    /**
+     * Réglages d'un profil d'encodage.
+     */
+    interface Profile {
+
+        /**
+         * Qualité par défaut du profil (1-100), à défaut de {@code q} dans la requête.
+         */
+        @WithName("quality")
+        Optional<Integer> quality();
+
+        @WithName("progressive")
+        @WithDefault("false")
+        boolean progressive();
+
+        @WithName("optimize-huffman")
+        @WithDefault("true")
+        boolean optimizeHuffman();
+
+        /**
+         * Sous-échantillonnage de la chrominance JPEG : {@code 444}, {@code 422} ou {@code 420}.
+         */
+        @WithName("chroma-subsampling")
+        @WithDefault("420")
+        String chromaSubsampling();
+
+        @WithName("strip-metadata")
+        @WithDefault("true")
+        boolean stripMetadata();
+
+        /**
+         * Niveau de compression deflate PNG (0-9).
+         */
+        @WithName("png-compression")
+        @WithDefault("9")
+        int pngCompression();
+    }
 }
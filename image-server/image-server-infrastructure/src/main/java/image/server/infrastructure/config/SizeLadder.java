@@ -0,0 +1,119 @@
+package image.server.infrastructure.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Échelle de tailles ({@code image.size-ladder}) sur laquelle les dimensions demandées sont alignées.
+ * <p>
+ * Une dimension est arrondie au premier palier supérieur ou égal (jamais en dessous :
+ * l'image servie n'est pas moins nette que demandé), et bornée au plus grand palier.
+ * Le nombre de variantes par image est ainsi limité au nombre de paliers,
+ * quelles que soient les largeurs envoyées par les clients.
+ * <p>
+ * Pour un recadrage, seul le plus grand côté est aligné ; l'autre suit le ratio demandé,
+ * pour que la forme du recadrage reste celle du client.
+ * <p>
+ * Sans échelle configurée, les dimensions sont conservées telles quelles.
+ */
+@ApplicationScoped
+public class SizeLadder {
+
+    private static final Logger LOG = Logger.getLogger(SizeLadder.class);
+
+    @Inject
+    ImageConfig config;
+
+    /** Paliers triés par ordre croissant, vide si l'échelle est désactivée. */
+    private int[] rungs = new int[0];
+
+    @PostConstruct
+    void init() {
+        rungs = config.sizeLadder().orElse(List.of()).stream()
+                .mapToInt(Integer::intValue)
+                .distinct()
+                .sorted()
+                .toArray();
+        for (int rung : rungs) {
+            if (rung < 1 || rung > config.maxDimension())
+                throw new IllegalArgumentException("Invalid size ladder rung (expected 1-" + config.maxDimension() + "): " + rung);
+        }
+        if (rungs.length > 0) {
+            LOG.infof("Size ladder: %s (redirect: %s)", Arrays.toString(rungs), config.sizeLadderRedirect());
+        }
+    }
+
+    /**
+     * @return {@code true} si une échelle est configurée
+     */
+    public boolean enabled() {
+        return rungs.length > 0;
+    }
+
+    /**
+     * @return {@code true} si une dimension hors échelle doit être redirigée vers son URL canonique
+     */
+    public boolean redirect() {
+        return enabled() && config.sizeLadderRedirect();
+    }
+
+    /**
+     * Aligne une dimension sur l'échelle.
+     * <p>
+     * Une dimension absente ou hors de {@code [1, max-dimension]} est renvoyée inchangée,
+     * pour être refusée par la validation plutôt que silencieusement corrigée.
+     *
+     * @param dimension dimension demandée (optionnelle)
+     * @return le palier correspondant
+     */
+    public Integer snap(Integer dimension) {
+        if (dimension == null || rungs.length == 0) return dimension;
+        if (dimension < 1 || dimension > config.maxDimension()) return dimension;
+
+        for (int rung : rungs) {
+            if (rung >= dimension) return rung;
+        }
+        return rungs[rungs.length - 1];
+    }
+
+    /**
+     * Aligne les dimensions d'une variante sur l'échelle.
+     * <p>
+     * Sans recadrage, chaque dimension est alignée séparément (la forme de l'image reste celle
+     * de la source). En recadrage avec deux dimensions, seul le plus grand côté est aligné
+     * et l'autre en est déduit selon le ratio demandé (au moins 1, au plus {@code max-dimension}).
+     *
+     * @param width  largeur demandée (optionnelle)
+     * @param height hauteur demandée (optionnelle)
+     * @param crop   recadrage demandé
+     * @return les dimensions alignées
+     */
+    public Size snap(Integer width, Integer height, boolean crop) {
+        if (!crop || width == null || height == null || rungs.length == 0) {
+            return new Size(snap(width), snap(height));
+        }
+        if (width < 1 || height < 1 || width > config.maxDimension() || height > config.maxDimension()) {
+            return new Size(width, height);
+        }
+        boolean landscape = width >= height;
+        int longer  = landscape ? width : height;
+        int shorter = landscape ? height : width;
+        int snapped = snap(longer);
+        int derived = (int) Math.max(1, Math.min(config.maxDimension(), Math.round((double) shorter * snapped / longer)));
+        return landscape ? new Size(snapped, derived) : new Size(derived, snapped);
+    }
+
+    /**
+     * Dimensions alignées d'une variante.
+     *
+     * @param width  largeur (peut être {@code null})
+     * @param height hauteur (peut être {@code null})
+     */
+    public record Size(Integer width, Integer height) {
+    }
+}
@@ -0,0 +1,46 @@
+package image.server.infrastructure.config;
+
+/**
+ * Variante pré-générée à l'upload, décrite dans {@code image.variant-presets}.
+ *
+ * @param width  largeur cible (optionnelle)
+ * @param height hauteur cible (optionnelle)
+ * @param crop   recadrage centré
+ */
+public record VariantPreset(Integer width, Integer height, boolean crop) {
+
+    /**
+     * Analyse une entrée {@code LxH[:crop]}, par exemple {@code 64x64:crop} ou {@code 400x}.
+     *
+     * @param spec valeur de configuration
+     * @return le preset correspondant
+     * @throws IllegalArgumentException si la valeur est mal formée
+     */
+    public static VariantPreset parse(String spec) {
+        String value = spec.trim().toLowerCase();
+        boolean crop = value.endsWith(":crop");
+        if (crop) value = value.substring(0, value.length() - ":crop".length());
+
+        int separator = value.indexOf('x');
+        if (separator < 0)
+            throw new IllegalArgumentException("Invalid variant preset: " + spec);
+
+        Integer width  = parseDimension(value.substring(0, separator), spec);
+        Integer height = parseDimension(value.substring(separator + 1), spec);
+        if (width == null && height == null)
+            throw new IllegalArgumentException("Invalid variant preset: " + spec);
+
+        return new VariantPreset(width, height, crop);
+    }
+
+    private static Integer parseDimension(String value, String spec) {
+        if (value.isBlank()) return null;
+        try {
+            int dimension = Integer.parseInt(value.trim());
+            if (dimension < 1) throw new IllegalArgumentException("Invalid variant preset: " + spec);
+            return dimension;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid variant preset: " + spec, e);
+        }
+    }
+}
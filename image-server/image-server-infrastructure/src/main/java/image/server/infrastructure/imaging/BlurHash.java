@@ -0,0 +1,138 @@
+package image.server.infrastructure.imaging;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Encodage BlurHash (https://blurha.sh) : une image résumée en quelques composantes de
+ * cosinus, codées en base 83 dans une chaîne d'une trentaine de caractères.
+ * <p>
+ * Le client décode la chaîne en un aperçu flou, affiché tant que l'image n'est pas chargée.
+ * L'encodage parcourt tous les pixels pour chaque composante : il s'applique à une vignette
+ * de quelques dizaines de pixels, jamais à l'original.
+ */
+public final class BlurHash {
+
+    private static final String BASE83 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    private BlurHash() {
+    }
+
+    /**
+     * Encode une image avec un nombre de composantes adapté à son orientation
+     * (4 × 3 en paysage, 3 × 4 en portrait).
+     *
+     * @param image vignette à encoder
+     * @return la chaîne BlurHash
+     */
+    public static String encode(BufferedImage image) {
+        boolean portrait = image.getHeight() > image.getWidth();
+        return encode(image, portrait ? 3 : 4, portrait ? 4 : 3);
+    }
+
+    /**
+     * Encode une image.
+     *
+     * @param image       vignette à encoder
+     * @param componentsX composantes horizontales (1-9)
+     * @param componentsY composantes verticales (1-9)
+     * @return la chaîne BlurHash
+     */
+    public static String encode(BufferedImage image, int componentsX, int componentsY) {
+        if (componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9)
+            throw new IllegalArgumentException("BlurHash components must be between 1 and 9.");
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+        // Pixels en RVB linéaire, convertis une seule fois pour toutes les composantes.
+        double[] linear = new double[pixels.length * 3];
+        for (int i = 0; i < pixels.length; i++) {
+            linear[i * 3]     = sRgbToLinear((pixels[i] >> 16) & 0xFF);
+            linear[i * 3 + 1] = sRgbToLinear((pixels[i] >> 8) & 0xFF);
+            linear[i * 3 + 2] = sRgbToLinear(pixels[i] & 0xFF);
+        }
+
+        double[][] factors = new double[componentsX * componentsY][];
+        for (int j = 0; j < componentsY; j++) {
+            for (int i = 0; i < componentsX; i++) {
+                factors[j * componentsX + i] = basisFactor(linear, width, height, i, j);
+            }
+        }
+
+        StringBuilder hash = new StringBuilder();
+        encode83(hash, (componentsX - 1) + (componentsY - 1) * 9, 1);
+
+        double maximum = 1;
+        if (factors.length > 1) {
+            double actualMaximum = 0;
+            for (int k = 1; k < factors.length; k++) {
+                for (double value : factors[k]) actualMaximum = Math.max(actualMaximum, Math.abs(value));
+            }
+            int quantisedMaximum = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+            maximum = (quantisedMaximum + 1) / 166.0;
+            encode83(hash, quantisedMaximum, 1);
+        } else {
+            encode83(hash, 0, 1);
+        }
+
+        encode83(hash, encodeDc(factors[0]), 4);
+        for (int k = 1; k < factors.length; k++) {
+            encode83(hash, encodeAc(factors[k], maximum), 2);
+        }
+        return hash.toString();
+    }
+
+    private static double[] basisFactor(double[] linear, int width, int height, int i, int j) {
+        double normalisation = i == 0 && j == 0 ? 1 : 2;
+        double r = 0, g = 0, b = 0;
+        for (int y = 0; y < height; y++) {
+            double basisY = Math.cos(Math.PI * j * y / height);
+            for (int x = 0; x < width; x++) {
+                double basis = normalisation * Math.cos(Math.PI * i * x / width) * basisY;
+                int p = (y * width + x) * 3;
+                r += basis * linear[p];
+                g += basis * linear[p + 1];
+                b += basis * linear[p + 2];
+            }
+        }
+        double scale = 1.0 / (width * height);
+        return new double[]{r * scale, g * scale, b * scale};
+    }
+
+    private static int encodeDc(double[] value) {
+        return (linearToSRgb(value[0]) << 16) + (linearToSRgb(value[1]) << 8) + linearToSRgb(value[2]);
+    }
+
+    private static int encodeAc(double[] value, double maximum) {
+        return quantiseAc(value[0], maximum) * 19 * 19
+                + quantiseAc(value[1], maximum) * 19
+                + quantiseAc(value[2], maximum);
+    }
+
+    private static int quantiseAc(double value, double maximum) {
+        double normalised = value / maximum;
+        double signedRoot = Math.copySign(Math.sqrt(Math.abs(normalised)), normalised);
+        return (int) Math.max(0, Math.min(18, Math.floor(signedRoot * 9 + 9.5)));
+    }
+
+    private static double sRgbToLinear(int value) {
+        double v = value / 255.0;
+        return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    private static int linearToSRgb(double value) {
+        double v = Math.max(0, Math.min(1, value));
+        return v <= 0.0031308
+                ? (int) (v * 12.92 * 255 + 0.5)
+                : (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    private static void encode83(StringBuilder target, int value, int length) {
+        for (int i = 1; i <= length; i++) {
+            int digit = (value / (int) Math.pow(83, length - i)) % 83;
+            target.append(BASE83.charAt(digit));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package image.server.infrastructure.imaging;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Réserve de tableaux de travail réutilisables, par classes de taille (puissances de deux).
+ * <p>
+ * Un tableau emprunté a au moins la longueur demandée (souvent plus) : l'appelant travaille
+ * sur la longueur qu'il a demandée, jamais sur {@code length}, et ne suppose pas le contenu initial.
+ * <p>
+ * Toutes les réserves partagent un budget global de {@link #BUDGET_BYTES} octets conservés ;
+ * au-delà, ou au-delà de {@link #MAX_POOLED_LENGTH} éléments, les tableaux rendus sont laissés
+ * au ramasse-miettes. La mémoire retenue entre deux redimensionnements reste ainsi de quelques Mo.
+ *
+ * @param <T> type de tableau
+ */
+final class BufferPool<T> {
+
+    /** Plus petite classe : 2^10 éléments. */
+    private static final int MIN_CLASS = 10;
+
+    /** Plus grande longueur conservée : 2^19 éléments (2 Mo de flottants). */
+    private static final int MAX_CLASS = 19;
+    static final int MAX_POOLED_LENGTH = 1 << MAX_CLASS;
+
+    /** Octets conservés au plus, toutes réserves et classes confondues. */
+    static final long BUDGET_BYTES = 8L << 20;
+
+    /** Octets actuellement conservés par l'ensemble des réserves. */
+    private static final AtomicLong pooledBytes = new AtomicLong();
+
+    /** Tampons flottants du redimensionnement (lignes filtrées, accumulateurs). */
+    static final BufferPool<float[]> FLOATS = new BufferPool<>(float[]::new, array -> array.length, Float.BYTES);
+
+    /** Tampons entiers du redimensionnement (échantillons et pixels d'une ligne). */
+    static final BufferPool<int[]> INTS = new BufferPool<>(int[]::new, array -> array.length, Integer.BYTES);
+
+    private final IntFunction<T> allocator;
+    private final ToIntFunction<T> length;
+    private final int elementBytes;
+    private final ConcurrentLinkedQueue<T>[] classes;
+
+    @SuppressWarnings("unchecked")
+    private BufferPool(IntFunction<T> allocator, ToIntFunction<T> length, int elementBytes) {
+        this.allocator = allocator;
+        this.length = length;
+        this.elementBytes = elementBytes;
+        this.classes = new ConcurrentLinkedQueue[MAX_CLASS - MIN_CLASS + 1];
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Emprunte un tableau d'au moins {@code minLength} éléments.
+     *
+     * @param minLength longueur minimale
+     * @return un tableau réutilisé si disponible, sinon un nouveau tableau de la classe correspondante
+     */
+    T acquire(int minLength) {
+        if (minLength > MAX_POOLED_LENGTH) return allocator.apply(minLength);
+        int sizeClass = sizeClass(minLength);
+        T pooled = classes[sizeClass - MIN_CLASS].poll();
+        if (pooled == null) return allocator.apply(1 << sizeClass);
+        pooledBytes.addAndGet(-bytes(sizeClass));
+        return pooled;
+    }
+
+    /**
+     * Rend un tableau emprunté. Sans effet pour un tableau hors classe ou si le budget est atteint.
+     *
+     * @param buffer tableau à rendre (peut être {@code null})
+     */
+    void release(T buffer) {
+        if (buffer == null) return;
+        int size = length.applyAsInt(buffer);
+        if (size > MAX_POOLED_LENGTH || Integer.bitCount(size) != 1 || size < 1 << MIN_CLASS) return;
+
+        int sizeClass = sizeClass(size);
+        long bytes = bytes(sizeClass);
+        if (pooledBytes.addAndGet(bytes) > BUDGET_BYTES) {
+            pooledBytes.addAndGet(-bytes);
+            return;
+        }
+        classes[sizeClass - MIN_CLASS].offer(buffer);
+    }
+
+    private long bytes(int sizeClass) {
+        return (long) elementBytes << sizeClass;
+    }
+
+    private static int sizeClass(int minLength) {
+        int exponent = 32 - Integer.numberOfLeadingZeros(Math.max(1, minLength) - 1);
+        return Math.max(MIN_CLASS, exponent);
+    }
+}
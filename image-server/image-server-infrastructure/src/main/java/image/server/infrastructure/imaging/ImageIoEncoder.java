@@ -0,0 +1,191 @@
+package image.server.infrastructure.imaging;
+
+import image.server.application.spi.EncodingProfile;
+import image.server.application.spi.ImageEncoder;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.plugins.jpeg.JPEGImageWriteParam;
+import javax.imageio.stream.FileImageOutputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Encodeur s'appuyant sur un writer ImageIO.
+ * <p>
+ * La qualité est appliquée par le paramètre de compression du writer ; un format sans
+ * transparence (JPEG) reçoit une image aplatie sur fond blanc.
+ * <p>
+ * Les réglages du profil d'encodage sont appliqués lorsque le writer les prend en charge :
+ * - JPEG : mode progressif, tables de Huffman optimisées, sous-échantillonnage de la chrominance
+ *   et en-tête JFIF (via les métadonnées natives du writer),
+ * - PNG : niveau de compression deflate.
+ * Les métadonnées de la source (EXIF, ICC) ne sont jamais recopiées : la variante est réencodée à partir des pixels.
+ */
+public final class ImageIoEncoder implements ImageEncoder {
+
+    private final String format;
+    private final String writerFormat;
+    private final String mediaType;
+    private final boolean lossy;
+    private final boolean supportsAlpha;
+    private final int defaultQuality;
+
+    public ImageIoEncoder(String format, String writerFormat, String mediaType,
+                          boolean lossy, boolean supportsAlpha, int defaultQuality) {
+        this.format = format;
+        this.writerFormat = writerFormat;
+        this.mediaType = mediaType;
+        this.lossy = lossy;
+        this.supportsAlpha = supportsAlpha;
+        this.defaultQuality = defaultQuality;
+    }
+
+    /**
+     * @return {@code true} si un writer ImageIO est disponible pour ce format
+     */
+    public boolean isAvailable() {
+        return ImageIO.getImageWritersByFormatName(writerFormat).hasNext();
+    }
+
+    @Override
+    public String format() {
+        return format;
+    }
+
+    @Override
+    public String mediaType() {
+        return mediaType;
+    }
+
+    @Override
+    public boolean lossy() {
+        return lossy;
+    }
+
+    @Override
+    public int defaultQuality() {
+        return defaultQuality;
+    }
+
+    @Override
+    public void encode(BufferedImage image, int quality, EncodingProfile profile, OutputStream out) throws IOException {
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            write(image, quality, profile, output);
+        }
+    }
+
+    /**
+     * Écrit directement dans le fichier (accès aléatoire), sans le tampon intermédiaire,
+     * en mémoire ou en fichier temporaire, qu'ImageIO place devant un {@link OutputStream}.
+     */
+    @Override
+    public void encode(BufferedImage image, int quality, EncodingProfile profile, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        try (ImageOutputStream output = new FileImageOutputStream(target.toFile())) {
+            write(image, quality, profile, output);
+        }
+    }
+
+    private void write(BufferedImage image, int quality, EncodingProfile profile, ImageOutputStream output) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(writerFormat);
+        if (!writers.hasNext()) throw new IOException("No ImageIO writer for format: " + writerFormat);
+
+        BufferedImage pixels = supportsAlpha ? image : flatten(image);
+        ImageWriter writer = writers.next();
+        try {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            IIOMetadata metadata = null;
+            if (param.canWriteCompressed()) {
+                if (lossy) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    if (param.getCompressionType() == null && param.getCompressionTypes() != null) {
+                        param.setCompressionType(param.getCompressionTypes()[0]);
+                    }
+                    param.setCompressionQuality(Math.min(100, Math.max(1, quality)) / 100f);
+                } else if (format.equals("png")) {
+                    // Le writer PNG traduit la qualité en niveau deflate : 1.0 → 0 (aucune compression), 0.0 → 9.
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(1f - Math.min(9, Math.max(0, profile.pngCompression())) / 9f);
+                }
+            }
+            if (param instanceof JPEGImageWriteParam jpeg) {
+                jpeg.setProgressiveMode(profile.progressive()
+                        ? ImageWriteParam.MODE_DEFAULT
+                        : ImageWriteParam.MODE_DISABLED);
+                jpeg.setOptimizeHuffmanTables(profile.optimizeHuffman());
+                metadata = jpegMetadata(writer, jpeg, pixels, profile);
+            }
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(pixels, null, metadata), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Prépare les métadonnées natives JPEG : facteurs d'échantillonnage de la luminance
+     * (la chrominance restant à 1×1) et, si demandé, suppression de l'en-tête JFIF.
+     */
+    private static IIOMetadata jpegMetadata(
+            ImageWriter writer, ImageWriteParam param, BufferedImage image, EncodingProfile profile) throws IOException {
+        IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), param);
+        String nativeFormat = metadata.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(nativeFormat);
+
+        NodeList components = root.getElementsByTagName("componentSpec");
+        if (components.getLength() == 3) {
+            IIOMetadataNode luma = (IIOMetadataNode) components.item(0);
+            int[] factors = switch (profile.chromaSubsampling()) {
+                case "444" -> new int[]{1, 1};
+                case "422" -> new int[]{2, 1};
+                default    -> new int[]{2, 2};
+            };
+            luma.setAttribute("HsamplingFactor", Integer.toString(factors[0]));
+            luma.setAttribute("VsamplingFactor", Integer.toString(factors[1]));
+        }
+
+        if (profile.stripMetadata()) {
+            NodeList jfif = root.getElementsByTagName("app0JFIF");
+            for (int i = jfif.getLength() - 1; i >= 0; i--) {
+                Node node = jfif.item(i);
+                node.getParentNode().removeChild(node);
+            }
+        }
+
+        metadata.setFromTree(nativeFormat, root);
+        return metadata;
+    }
+
+    /**
+     * Retire la transparence d'une image en la composant sur fond blanc.
+     */
+    private static BufferedImage flatten(BufferedImage image) {
+        if (!image.getColorModel().hasAlpha()) return image;
+
+        BufferedImage opaque = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = opaque.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return opaque;
+    }
+}
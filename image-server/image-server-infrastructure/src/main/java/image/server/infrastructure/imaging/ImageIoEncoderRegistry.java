@@ -0,0 +1,163 @@
+package image.server.infrastructure.imaging;
+
+import image.server.application.spi.EncodingProfile;
+import image.server.application.spi.ImageEncoder;
+import image.server.application.spi.ImageEncoderRegistry;
+import image.server.infrastructure.config.ImageConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Registre des encodeurs ImageIO présents sur le classpath.
+ * <p>
+ * Un format n'est proposé que si un writer ImageIO existe pour lui (le WebP, par exemple,
+ * dépend d'un plugin) : un format indisponible est servi dans le format par défaut
+ * au lieu d'échouer à l'encodage.
+ * <p>
+ * La négociation ({@code fmt=auto}) retient le premier format de {@code image.negotiated-formats}
+ * explicitement accepté par le client, sinon le format par défaut : les jokers
+ * ({@code image/*}, {@code *}{@code /*}) ne suffisent pas à choisir un format moderne.
+ * <p>
+ * Les profils d'encodage ({@code image.profiles.*}) sont validés au démarrage :
+ * une configuration invalide empêche l'application de démarrer.
+ */
+@ApplicationScoped
+public class ImageIoEncoderRegistry implements ImageEncoderRegistry {
+
+    private static final Logger LOG = Logger.getLogger(ImageIoEncoderRegistry.class);
+
+    /** Format utilisé quand le format demandé est inconnu ou indisponible. */
+    public static final String DEFAULT_FORMAT = "jpg";
+
+    @Inject
+    ImageConfig config;
+
+    /** Les noms de profils font partie des clés de cache (noms de fichiers). */
+    private static final Pattern PROFILE_NAME = Pattern.compile("[a-z0-9-]+");
+    private static final Set<String> CHROMA_SUBSAMPLINGS = Set.of("444", "422", "420");
+
+    private final Map<String, ImageEncoder> encoders = new LinkedHashMap<>();
+    private final Map<String, EncodingProfile> profiles = new HashMap<>();
+    private EncodingProfile defaultProfile;
+
+    @PostConstruct
+    void init() {
+        for (ImageIoEncoder encoder : List.of(
+                new ImageIoEncoder("jpg", "jpeg", "image/jpeg", true, false, 85),
+                new ImageIoEncoder("png", "png", "image/png", false, true, 100),
+                new ImageIoEncoder("webp", "webp", "image/webp", true, true, 80))) {
+            if (encoder.isAvailable()) {
+                encoders.put(encoder.format(), encoder);
+            }
+        }
+        if (!encoders.containsKey(DEFAULT_FORMAT)) {
+            throw new IllegalStateException("No ImageIO writer for the default format: " + DEFAULT_FORMAT);
+        }
+        LOG.infof("Image encoders available: %s", encoders.keySet());
+
+        config.profiles().forEach((name, profile) -> profiles.put(name, toProfile(name, profile)));
+        defaultProfile = config.defaultProfile()
+                .map(name -> profile(name).orElseThrow(
+                        () -> new IllegalStateException("Unknown default encoding profile: " + name)))
+                .orElse(EncodingProfile.DEFAULT);
+        LOG.infof("Encoding profiles: %s (default: %s)", profiles.keySet(),
+                defaultProfile.name() != null ? defaultProfile.name() : "none");
+    }
+
+    private static EncodingProfile toProfile(String name, ImageConfig.Profile profile) {
+        if (!PROFILE_NAME.matcher(name).matches())
+            throw new IllegalArgumentException("Invalid encoding profile name (expected [a-z0-9-]+): " + name);
+        if (!CHROMA_SUBSAMPLINGS.contains(profile.chromaSubsampling()))
+            throw new IllegalArgumentException("Invalid chroma subsampling for profile " + name
+                    + ": " + profile.chromaSubsampling() + " (expected one of " + CHROMA_SUBSAMPLINGS + ")");
+        if (profile.pngCompression() < 0 || profile.pngCompression() > 9)
+            throw new IllegalArgumentException("Invalid PNG compression level for profile " + name
+                    + ": " + profile.pngCompression() + " (expected 0-9)");
+
+        return new EncodingProfile(
+                name,
+                profile.quality().map(q -> Math.min(100, Math.max(1, q))).orElse(null),
+                profile.progressive(),
+                profile.optimizeHuffman(),
+                profile.chromaSubsampling(),
+                profile.stripMetadata(),
+                profile.pngCompression()
+        );
+    }
+
+    @Override
+    public List<ImageEncoder> available() {
+        return List.copyOf(encoders.values());
+    }
+
+    @Override
+    public Optional<ImageEncoder> forFormat(String format) {
+        if (format == null) return Optional.empty();
+        String normalized = format.toLowerCase(Locale.ROOT);
+        return Optional.ofNullable(encoders.get(normalized.equals("jpeg") ? "jpg" : normalized));
+    }
+
+    @Override
+    public Optional<EncodingProfile> profile(String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(profiles.get(name.toLowerCase(Locale.ROOT)));
+    }
+
+    @Override
+    public EncodingProfile defaultProfile() {
+        return defaultProfile;
+    }
+
+    @Override
+    public ImageEncoder defaultEncoder() {
+        return encoders.get(DEFAULT_FORMAT);
+    }
+
+    @Override
+    public ImageEncoder negotiate(String accept) {
+        if (accept != null && !accept.isBlank()) {
+            Map<String, Double> accepted = parseAccept(accept);
+            for (String format : config.negotiatedFormats()) {
+                ImageEncoder encoder = forFormat(format).orElse(null);
+                if (encoder != null && accepted.getOrDefault(encoder.mediaType(), 0.0) > 0) {
+                    return encoder;
+                }
+            }
+        }
+        return defaultEncoder();
+    }
+
+    /**
+     * Lit les types explicitement listés dans un en-tête {@code Accept}, avec leur poids {@code q}.
+     */
+    private static Map<String, Double> parseAccept(String accept) {
+        Map<String, Double> accepted = new HashMap<>();
+        for (String range : accept.split(",")) {
+            String[] parts = range.split(";");
+            String mediaType = parts[0].trim().toLowerCase(Locale.ROOT);
+            double weight = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        weight = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        weight = 0.0;
+                    }
+                }
+            }
+            accepted.merge(mediaType, weight, Math::max);
+        }
+        return accepted;
+    }
+}
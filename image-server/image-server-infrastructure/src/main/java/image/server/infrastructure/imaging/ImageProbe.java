@@ -0,0 +1,162 @@
+package image.server.infrastructure.imaging;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Identification d'une image par ses octets magiques et lecture de ses dimensions dans l'en-tête.
+ * <p>
+ * Aucun pixel n'est décodé et seuls les premiers octets du fichier sont lus
+ * (pour un JPEG, jusqu'au marqueur SOF) : l'extension annoncée peut ainsi être vérifiée
+ * et les images démesurées refusées avant tout décodage.
+ *
+ * @param format format détecté
+ * @param width  largeur stockée en pixels
+ * @param height hauteur stockée en pixels
+ */
+public record ImageProbe(Format format, int width, int height) {
+
+    /**
+     * Formats reconnus, avec les extensions qui leur correspondent.
+     */
+    public enum Format {
+        JPEG("jpg", "jpeg"),
+        PNG("png"),
+        GIF("gif"),
+        WEBP("webp"),
+        BMP("bmp");
+
+        private final String[] extensions;
+
+        Format(String... extensions) {
+            this.extensions = extensions;
+        }
+
+        /**
+         * @return {@code true} si l'extension (sans point, insensible à la casse) désigne ce format
+         */
+        public boolean matchesExtension(String extension) {
+            return Arrays.asList(extensions).contains(extension.toLowerCase());
+        }
+    }
+
+    /** Taille de l'en-tête lu pour identifier le format et, hors JPEG, les dimensions. */
+    private static final int HEADER_LENGTH = 30;
+
+    /**
+     * Identifie une image et lit ses dimensions.
+     *
+     * @param path fichier à analyser
+     * @return le résultat, ou {@code null} si le format n'est pas reconnu ou l'en-tête est invalide
+     * @throws IOException si la lecture du fichier échoue
+     */
+    public static ImageProbe probe(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            in.mark(HEADER_LENGTH);
+            byte[] header = in.readNBytes(HEADER_LENGTH);
+            in.reset();
+
+            if (startsWith(header, 0xFF, 0xD8, 0xFF)) return probeJpeg(in);
+            if (header.length < HEADER_LENGTH) return null;
+            if (startsWith(header, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) return probePng(header);
+            if (startsWith(header, 'G', 'I', 'F', '8')) return valid(Format.GIF, le16(header, 6), le16(header, 8));
+            if (startsWith(header, 'R', 'I', 'F', 'F') && ascii(header, 8, 4).equals("WEBP")) return probeWebp(header);
+            if (startsWith(header, 'B', 'M')) return valid(Format.BMP, le32(header, 18), Math.abs(le32(header, 22)));
+            return null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static ImageProbe probePng(byte[] header) {
+        if (!ascii(header, 12, 4).equals("IHDR")) return null;
+        return valid(Format.PNG, be32(header, 16), be32(header, 20));
+    }
+
+    /**
+     * WebP : dimensions dans le premier chunk, selon qu'il s'agit d'un VP8 (avec perte),
+     * VP8L (sans perte) ou VP8X (étendu).
+     */
+    private static ImageProbe probeWebp(byte[] header) {
+        return switch (ascii(header, 12, 4)) {
+            case "VP8 " -> valid(Format.WEBP, le16(header, 26) & 0x3FFF, le16(header, 28) & 0x3FFF);
+            case "VP8L" -> {
+                int bits = le32(header, 21);
+                yield valid(Format.WEBP, (bits & 0x3FFF) + 1, ((bits >>> 14) & 0x3FFF) + 1);
+            }
+            case "VP8X" -> valid(Format.WEBP, le24(header, 24) + 1, le24(header, 27) + 1);
+            default -> null;
+        };
+    }
+
+    /**
+     * JPEG : parcourt les segments jusqu'au premier marqueur SOF, qui porte les dimensions.
+     * Les segments intermédiaires (EXIF, ICC…) sont sautés sans être lus.
+     */
+    private static ImageProbe probeJpeg(DataInputStream in) throws IOException {
+        in.skipNBytes(2);
+        while (true) {
+            int marker = in.readUnsignedByte();
+            if (marker != 0xFF) return null;
+            while (marker == 0xFF) marker = in.readUnsignedByte();
+
+            // Marqueurs sans segment
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD8)) continue;
+            // Fin d'image ou début des données compressées sans SOF : fichier invalide
+            if (marker == 0xD9 || marker == 0xDA) return null;
+
+            int length = in.readUnsignedShort();
+            if (length < 2) return null;
+            if (isStartOfFrame(marker)) {
+                in.skipNBytes(1); // précision
+                int height = in.readUnsignedShort();
+                int width  = in.readUnsignedShort();
+                return valid(Format.JPEG, width, height);
+            }
+            in.skipNBytes(length - 2);
+        }
+    }
+
+    private static boolean isStartOfFrame(int marker) {
+        return marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+    }
+
+    private static ImageProbe valid(Format format, int width, int height) {
+        return width > 0 && height > 0 ? new ImageProbe(format, width, height) : null;
+    }
+
+    private static boolean startsWith(byte[] data, int... prefix) {
+        if (data.length < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if ((data[i] & 0xFF) != prefix[i]) return false;
+        }
+        return true;
+    }
+
+    private static String ascii(byte[] data, int offset, int length) {
+        return new String(data, offset, length, StandardCharsets.US_ASCII);
+    }
+
+    private static int le16(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8;
+    }
+
+    private static int le24(byte[] data, int offset) {
+        return le16(data, offset) | (data[offset + 2] & 0xFF) << 16;
+    }
+
+    private static int le32(byte[] data, int offset) {
+        return le24(data, offset) | (data[offset + 3] & 0xFF) << 24;
+    }
+
+    private static int be32(byte[] data, int offset) {
+        return (data[offset] & 0xFF) << 24 | (data[offset + 1] & 0xFF) << 16
+                | (data[offset + 2] & 0xFF) << 8 | (data[offset + 3] & 0xFF);
+    }
+}
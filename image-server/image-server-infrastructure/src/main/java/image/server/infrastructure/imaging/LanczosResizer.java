@@ -0,0 +1,283 @@
+package image.server.infrastructure.imaging;
+
+import net.coobird.thumbnailator.resizers.Resizer;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.util.Arrays;
+
+/**
+ * Redimensionnement par filtre de Lanczos (a = 3), séparable : une passe horizontale
+ * puis une passe verticale, avec des poids précalculés pour chaque ligne et colonne de sortie.
+ * <p>
+ * En réduction, le noyau est élargi du facteur d'échelle : chaque pixel de sortie intègre
+ * tous les pixels source qu'il recouvre, sans crénelage.
+ * <p>
+ * Les lignes issues de la passe horizontale sont conservées dans une fenêtre glissante
+ * de la hauteur du noyau vertical : la mémoire de travail ne dépend pas de la hauteur de l'image.
+ * Les canaux sont filtrés en alpha prémultiplié, pour éviter les halos autour des zones transparentes.
+ */
+public final class LanczosResizer implements Resizer {
+
+    /** Rayon du noyau, en pixels de sortie. */
+    private static final int LOBES = 3;
+
+    @Override
+    public void resize(BufferedImage source, BufferedImage destination) {
+        int srcW = source.getWidth();
+        int srcH = source.getHeight();
+        int dstW = destination.getWidth();
+        int dstH = destination.getHeight();
+
+        Kernel horizontal = Kernel.of(srcW, dstW);
+        Kernel vertical   = Kernel.of(srcH, dstH);
+        resizeRows(source, destination, horizontal, vertical, 0, dstH);
+    }
+
+    /**
+     * Calcule les lignes de sortie {@code [fromRow, toRow)}.
+     * <p>
+     * Seules les lignes source couvertes par ces lignes de sortie sont lues.
+     */
+    static void resizeRows(
+            BufferedImage source, BufferedImage destination, Kernel horizontal, Kernel vertical, int fromRow, int toRow
+    ) {
+        int srcW = source.getWidth();
+        int dstW = destination.getWidth();
+
+        int channels = dstW * 4;
+
+        // Fenêtre glissante des lignes filtrées horizontalement, indexée par ligne source modulo sa taille.
+        // Les tampons de travail sont empruntés à la réserve : leur longueur peut dépasser celle utilisée.
+        int window = vertical.maxCount;
+        float[][] rows = new float[window][];
+        int[] rowIndex = new int[window];
+        Arrays.fill(rowIndex, -1);
+
+        RowReader reader = new RowReader(source);
+        float[] premultiplied = BufferPool.FLOATS.acquire(srcW * 4);
+        float[] accumulator = BufferPool.FLOATS.acquire(channels);
+        int[] outputRow = BufferPool.INTS.acquire(dstW);
+        try {
+            for (int i = 0; i < window; i++) {
+                rows[i] = BufferPool.FLOATS.acquire(channels);
+            }
+            filterRows(destination, horizontal, vertical, fromRow, toRow,
+                    rows, rowIndex, reader, premultiplied, accumulator, outputRow);
+        } finally {
+            for (float[] row : rows) BufferPool.FLOATS.release(row);
+            BufferPool.FLOATS.release(premultiplied);
+            BufferPool.FLOATS.release(accumulator);
+            BufferPool.INTS.release(outputRow);
+            reader.release();
+        }
+    }
+
+    private static void filterRows(
+            BufferedImage destination, Kernel horizontal, Kernel vertical, int fromRow, int toRow,
+            float[][] rows, int[] rowIndex, RowReader reader, float[] premultiplied, float[] accumulator, int[] outputRow
+    ) {
+        int dstW = destination.getWidth();
+        int channels = dstW * 4;
+        int window = rows.length;
+
+        for (int y = fromRow; y < toRow; y++) {
+            Arrays.fill(accumulator, 0, channels, 0f);
+            int start = vertical.start[y];
+            int count = vertical.count[y];
+            for (int k = 0; k < count; k++) {
+                int sy = start + k;
+                int slot = sy % window;
+                if (rowIndex[slot] != sy) {
+                    reader.read(sy, premultiplied);
+                    filterRow(premultiplied, rows[slot], horizontal);
+                    rowIndex[slot] = sy;
+                }
+                float weight = vertical.weights[y * vertical.maxCount + k];
+                float[] row = rows[slot];
+                for (int i = 0; i < channels; i++) {
+                    accumulator[i] += row[i] * weight;
+                }
+            }
+            for (int x = 0; x < dstW; x++) {
+                outputRow[x] = toArgb(accumulator, x * 4);
+            }
+            destination.setRGB(0, y, dstW, 1, outputRow, 0, dstW);
+        }
+    }
+
+    /**
+     * Passe horizontale d'une ligne (canaux prémultipliés) : applique les poids de chaque colonne.
+     */
+    private static void filterRow(float[] premultiplied, float[] target, Kernel kernel) {
+        for (int x = 0; x < kernel.count.length; x++) {
+            float a = 0, r = 0, g = 0, b = 0;
+            int offset = x * kernel.maxCount;
+            int start = kernel.start[x];
+            for (int k = 0; k < kernel.count[x]; k++) {
+                float weight = kernel.weights[offset + k];
+                int i = (start + k) * 4;
+                a += premultiplied[i] * weight;
+                r += premultiplied[i + 1] * weight;
+                g += premultiplied[i + 2] * weight;
+                b += premultiplied[i + 3] * weight;
+            }
+            int o = x * 4;
+            target[o]     = a;
+            target[o + 1] = r;
+            target[o + 2] = g;
+            target[o + 3] = b;
+        }
+    }
+
+    private static int toArgb(float[] channels, int i) {
+        int alpha = clamp(channels[i]);
+        if (alpha == 0) return 0;
+        float unpremultiply = 255f / alpha;
+        return alpha << 24
+                | clamp(channels[i + 1] * unpremultiply) << 16
+                | clamp(channels[i + 2] * unpremultiply) << 8
+                | clamp(channels[i + 3] * unpremultiply);
+    }
+
+    private static int clamp(float value) {
+        int rounded = Math.round(value);
+        return rounded < 0 ? 0 : Math.min(255, rounded);
+    }
+
+    /**
+     * Lecture d'une ligne source en canaux ARGB prémultipliés.
+     * <p>
+     * Les rasters 8 bits sRGB courants (JPEG, PNG décodés) sont lus directement par échantillons ;
+     * les autres passent par la conversion générique {@link BufferedImage#getRGB}, plus lente.
+     */
+    private static final class RowReader {
+        private final BufferedImage image;
+        private final Raster raster;
+        private final int bands;
+        private final int[] samples;
+        private final int[] argb;
+
+        RowReader(BufferedImage image) {
+            this.image = image;
+            int width = image.getWidth();
+            if (readsSamples(image)) {
+                this.raster  = image.getRaster();
+                this.bands   = raster.getNumBands();
+                this.samples = BufferPool.INTS.acquire(width * bands);
+                this.argb    = null;
+            } else {
+                this.raster  = null;
+                this.bands   = 0;
+                this.samples = null;
+                this.argb    = BufferPool.INTS.acquire(width);
+            }
+        }
+
+        void release() {
+            BufferPool.INTS.release(samples);
+            BufferPool.INTS.release(argb);
+        }
+
+        void read(int y, float[] premultiplied) {
+            int width = image.getWidth();
+            if (raster != null) {
+                raster.getPixels(raster.getMinX(), raster.getMinY() + y, width, 1, samples);
+                for (int x = 0; x < width; x++) {
+                    int s = x * bands;
+                    int alpha = bands == 4 ? samples[s + 3] : 255;
+                    store(premultiplied, x * 4, alpha, samples[s], samples[s + 1], samples[s + 2]);
+                }
+            } else {
+                image.getRGB(0, y, width, 1, argb, 0, width);
+                for (int x = 0; x < width; x++) {
+                    int pixel = argb[x];
+                    store(premultiplied, x * 4, pixel >>> 24, (pixel >> 16) & 0xFF, (pixel >> 8) & 0xFF, pixel & 0xFF);
+                }
+            }
+        }
+
+        private static void store(float[] target, int i, int alpha, int red, int green, int blue) {
+            float factor = alpha / 255f;
+            target[i]     = alpha;
+            target[i + 1] = red * factor;
+            target[i + 2] = green * factor;
+            target[i + 3] = blue * factor;
+        }
+
+        /**
+         * Échantillons directement exploitables : sRGB, 8 bits, trois ou quatre bandes (R, G, B[, A]), alpha non prémultiplié.
+         */
+        private static boolean readsSamples(BufferedImage image) {
+            ColorModel model = image.getColorModel();
+            if (!(model instanceof ComponentColorModel || model instanceof DirectColorModel)) return false;
+            if (!model.getColorSpace().isCS_sRGB() || model.isAlphaPremultiplied()) return false;
+            int bands = image.getRaster().getNumBands();
+            if (bands != 3 && !(bands == 4 && model.hasAlpha())) return false;
+            for (int size : model.getComponentSize()) {
+                if (size != 8) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Poids de Lanczos pour un axe : pour chaque pixel de sortie, la première position source
+     * couverte, le nombre de positions et leurs poids normalisés.
+     */
+    static final class Kernel {
+        final int[] start;
+        final int[] count;
+        final float[] weights;
+        final int maxCount;
+
+        private Kernel(int[] start, int[] count, float[] weights, int maxCount) {
+            this.start = start;
+            this.count = count;
+            this.weights = weights;
+            this.maxCount = maxCount;
+        }
+
+        static Kernel of(int sourceSize, int targetSize) {
+            double scale = (double) sourceSize / targetSize;
+            // En réduction, le noyau couvre « scale » pixels source par pixel de sortie.
+            double filterScale = Math.max(1.0, scale);
+            double support = LOBES * filterScale;
+            int maxCount = (int) Math.ceil(support) * 2 + 1;
+
+            int[] start = new int[targetSize];
+            int[] count = new int[targetSize];
+            float[] weights = new float[targetSize * maxCount];
+            double[] raw = new double[maxCount];
+
+            for (int i = 0; i < targetSize; i++) {
+                double center = (i + 0.5) * scale;
+                int min = Math.max(0, (int) Math.floor(center - support + 0.5));
+                int max = Math.min(sourceSize, (int) Math.floor(center + support + 0.5));
+                int n = Math.min(maxCount, max - min);
+
+                double total = 0;
+                for (int k = 0; k < n; k++) {
+                    raw[k] = lanczos((min + k - center + 0.5) / filterScale);
+                    total += raw[k];
+                }
+                start[i] = min;
+                count[i] = n;
+                for (int k = 0; k < n; k++) {
+                    weights[i * maxCount + k] = (float) (total != 0 ? raw[k] / total : 0);
+                }
+            }
+            return new Kernel(start, count, weights, maxCount);
+        }
+
+        private static double lanczos(double x) {
+            if (x == 0) return 1;
+            if (x <= -LOBES || x >= LOBES) return 0;
+            double px = Math.PI * x;
+            return LOBES * Math.sin(px) * Math.sin(px / LOBES) / (px * px);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package image.server.infrastructure.imaging;
+
+import net.coobird.thumbnailator.resizers.Resizer;
+import net.coobird.thumbnailator.resizers.Resizers;
+
+import java.util.Locale;
+
+/**
+ * Niveaux de qualité du rééchantillonnage, du plus rapide au plus fidèle.
+ * <p>
+ * - {@link #FAST} : bilinéaire en une passe, pour les vignettes et les faibles réductions,
+ * - {@link #BALANCED} : bilinéaire progressif (réductions successives par deux),
+ * - {@link #HIGH} : filtre de Lanczos, pour les grandes images où la netteté se voit.
+ */
+public enum ResamplingTier {
+    FAST(Resizers.BILINEAR),
+    BALANCED(Resizers.PROGRESSIVE),
+    HIGH(new LanczosResizer());
+
+    /** Valeur de configuration qui délègue le choix à {@link #select}. */
+    public static final String AUTO = "auto";
+
+    private final Resizer resizer;
+
+    ResamplingTier(Resizer resizer) {
+        this.resizer = resizer;
+    }
+
+    /**
+     * @return l'algorithme de redimensionnement de ce niveau
+     */
+    public Resizer resizer() {
+        return resizer;
+    }
+
+    /**
+     * Choisit le niveau d'après la taille de sortie et le facteur d'échelle.
+     * <p>
+     * Une petite sortie ou une réduction de moins de moitié ne gagne rien au filtrage progressif :
+     * une passe bilinéaire suffit. Une grande sortie reçoit le filtre de Lanczos.
+     *
+     * @param scale       facteur d'échelle (sortie / source), inférieur à 1 en réduction
+     * @param outputSize  plus grand côté de la sortie, en pixels
+     * @param fastMaxSize taille de sortie jusqu'à laquelle le niveau rapide s'applique
+     * @param highMinSize taille de sortie à partir de laquelle le niveau fidèle s'applique
+     * @return le niveau retenu
+     */
+    public static ResamplingTier select(double scale, int outputSize, int fastMaxSize, int highMinSize) {
+        if (outputSize <= fastMaxSize) return FAST;
+        if (outputSize >= highMinSize) return HIGH;
+        return scale > 0.5 ? FAST : BALANCED;
+    }
+
+    /**
+     * Lit un niveau configuré ({@code fast}, {@code balanced}, {@code high}).
+     *
+     * @param value valeur de configuration, insensible à la casse
+     * @return le niveau, ou {@code null} pour {@value #AUTO}
+     * @throws IllegalArgumentException si la valeur est inconnue
+     */
+    public static ResamplingTier parse(String value) {
+        String normalized = value.trim().toUpperCase(Locale.ROOT);
+        if (normalized.equals(AUTO.toUpperCase(Locale.ROOT))) return null;
+        try {
+            return valueOf(normalized);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid resampling tier (expected auto|fast|balanced|high): " + value, e);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package image.server.infrastructure.imaging;
+
+import net.coobird.thumbnailator.filters.ImageFilter;
+import net.coobird.thumbnailator.util.exif.ExifFilterUtils;
+import net.coobird.thumbnailator.util.exif.ExifUtils;
+import net.coobird.thumbnailator.util.exif.Orientation;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Image source ouverte en lecture, décodée au plus une fois.
+ * <p>
+ * À l'ouverture, seul l'en-tête est lu (dimensions, orientation EXIF) : aucun pixel n'est décodé.
+ * Les pixels sont décodés à la demande par {@link #decode()}, avec le même lecteur,
+ * puis transmis tels quels au redimensionnement.
+ * <p>
+ * Les dimensions exposées tiennent compte de l'orientation EXIF (image telle qu'affichée).
+ * <p>
+ * Pour une forte réduction, le décodage est sous-échantillonné : le raster pleine résolution
+ * n'est jamais matérialisé, l'image décodée reste seulement assez grande pour que
+ * la passe finale de redimensionnement conserve sa qualité.
+ */
+public final class SourceImage implements AutoCloseable {
+
+    /**
+     * Marge minimale entre l'image décodée et la taille cible : le décodage sous-échantillonné
+     * produit toujours au moins deux fois la taille finale, affinée ensuite par le redimensionnement.
+     */
+    private static final int MIN_OVERSAMPLING = 2;
+
+    private final ImageInputStream input;
+    private final ImageReader reader;
+    private final Orientation orientation;
+    private final int width;
+    private final int height;
+
+    private SourceImage(ImageInputStream input, ImageReader reader) throws IOException {
+        this.input = input;
+        this.reader = reader;
+        this.orientation = readOrientation(reader);
+
+        int rawWidth  = reader.getWidth(0);
+        int rawHeight = reader.getHeight(0);
+        this.width  = isQuarterTurn() ? rawHeight : rawWidth;
+        this.height = isQuarterTurn() ? rawWidth : rawHeight;
+    }
+
+    /**
+     * Ouvre une image et lit son en-tête.
+     *
+     * @param path fichier source
+     * @return l'image ouverte, ou {@code null} si aucun lecteur ImageIO ne reconnaît le format
+     * @throws IOException si la lecture de l'en-tête échoue (fichier tronqué ou corrompu)
+     */
+    public static SourceImage open(Path path) throws IOException {
+        ImageInputStream input = ImageIO.createImageInputStream(path.toFile());
+        if (input == null) return null;
+
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            input.close();
+            return null;
+        }
+
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(input, false, false);
+            return new SourceImage(input, reader);
+        } catch (IOException | RuntimeException e) {
+            reader.dispose();
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return largeur affichée (après orientation EXIF)
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * @return hauteur affichée (après orientation EXIF)
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Indique si l'orientation EXIF impose une rotation d'un quart de tour :
+     * les dimensions stockées sont alors inversées par rapport à l'affichage.
+     */
+    public boolean isQuarterTurn() {
+        return orientation == Orientation.LEFT_TOP
+                || orientation == Orientation.RIGHT_TOP
+                || orientation == Orientation.RIGHT_BOTTOM
+                || orientation == Orientation.LEFT_BOTTOM;
+    }
+
+    /**
+     * @return le filtre redressant l'image selon l'orientation EXIF, ou {@code null} si inutile
+     */
+    public ImageFilter orientationFilter() {
+        if (orientation == null || orientation == Orientation.TOP_LEFT) return null;
+        return ExifFilterUtils.getFilterForOrientation(orientation);
+    }
+
+    /**
+     * Décode les pixels de la première image du fichier (orientation stockée, non redressée),
+     * en sous-échantillonnant la source lorsque la cible est bien plus petite.
+     *
+     * @param targetW largeur affichée visée (optionnelle)
+     * @param targetH hauteur affichée visée (optionnelle)
+     * @param crop    recadrage : l'image doit alors couvrir les deux dimensions cibles
+     * @return l'image décodée
+     * @throws IOException si le décodage échoue
+     */
+    public BufferedImage decode(Integer targetW, Integer targetH, boolean crop) throws IOException {
+        ImageReadParam param = reader.getDefaultReadParam();
+        int subsampling = subsamplingFor(targetW, targetH, crop);
+        if (subsampling > 1) {
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        }
+        return reader.read(0, param);
+    }
+
+    /**
+     * Calcule le pas de sous-échantillonnage (identique sur les deux axes) qui garde
+     * l'image décodée au moins {@link #MIN_OVERSAMPLING} fois plus grande que la variante finale.
+     * <p>
+     * Le rapport largeur/hauteur étant conservé, le calcul se fait sur les dimensions affichées.
+     */
+    int subsamplingFor(Integer targetW, Integer targetH, boolean crop) {
+        double ratio;
+        if (targetW != null && targetH != null) {
+            double ratioW = (double) width / targetW;
+            double ratioH = (double) height / targetH;
+            // Recadrage : la dimension la moins réduite fixe l'échelle ; ajustement : la plus réduite.
+            ratio = crop ? Math.min(ratioW, ratioH) : Math.max(ratioW, ratioH);
+        } else if (targetW != null) {
+            ratio = (double) width / targetW;
+        } else if (targetH != null) {
+            ratio = (double) height / targetH;
+        } else {
+            return 1;
+        }
+        return Math.max(1, (int) Math.floor(ratio / MIN_OVERSAMPLING));
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.dispose();
+        input.close();
+    }
+
+    private static Orientation readOrientation(ImageReader reader) {
+        try {
+            return ExifUtils.getExifOrientation(reader, 0);
+        } catch (IOException | RuntimeException e) {
+            // Métadonnées illisibles : on conserve l'orientation stockée.
+            return null;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package image.server.infrastructure.imaging;
+
+import image.server.infrastructure.config.ImageConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import net.coobird.thumbnailator.resizers.Resizer;
+import org.jboss.logging.Logger;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Redimensionnement de Lanczos parallélisé par bandes, pour les très grandes images.
+ * <p>
+ * L'image de sortie est découpée en bandes horizontales calculées en parallèle sur un pool
+ * ForkJoin dédié. Chaque bande lit les lignes source couvertes par son noyau vertical :
+ * les bandes voisines se recouvrent de la demi-largeur du noyau, si bien que le résultat
+ * est identique, au pixel près, à celui d'un redimensionnement en une seule passe.
+ * <p>
+ * Le pool est partagé par tous les transcodages : sa taille borne le nombre total
+ * de cœurs consacrés aux redimensionnements en bandes.
+ */
+@ApplicationScoped
+public class TiledLanczosResizer implements Resizer {
+
+    private static final Logger LOG = Logger.getLogger(TiledLanczosResizer.class);
+
+    /** Hauteur minimale d'une bande (lignes de sortie), en deçà de laquelle le recouvrement coûte plus qu'il ne rapporte. */
+    private static final int MIN_BAND_ROWS = 32;
+
+    @Inject
+    ImageConfig config;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private ForkJoinPool pool;
+    private Counter tiled;
+
+    @PostConstruct
+    void init() {
+        int parallelism = config.tiledResizeParallelism() > 0
+                ? config.tiledResizeParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("image-resize-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+        tiled = meterRegistry.counter("image.resize.tiled");
+
+        LOG.infof("Tiled resize pool started — parallelism %d, threshold %d pixel(s).",
+                parallelism, config.tiledResizeMinPixels());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Indique si une image source est assez grande pour être redimensionnée en bandes.
+     *
+     * @param image image à redimensionner
+     * @return {@code true} au-delà de {@code image.tiled-resize-min-pixels}
+     */
+    public boolean accepts(BufferedImage image) {
+        long threshold = config.tiledResizeMinPixels();
+        return threshold > 0 && (long) image.getWidth() * image.getHeight() >= threshold;
+    }
+
+    @Override
+    public void resize(BufferedImage source, BufferedImage destination) {
+        int dstH = destination.getHeight();
+        LanczosResizer.Kernel horizontal = LanczosResizer.Kernel.of(source.getWidth(), destination.getWidth());
+        LanczosResizer.Kernel vertical   = LanczosResizer.Kernel.of(source.getHeight(), dstH);
+
+        int bands = Math.max(1, Math.min(pool.getParallelism() * 2, dstH / MIN_BAND_ROWS));
+        int bandRows = (dstH + bands - 1) / bands;
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(bands);
+        for (int from = 0; from < dstH; from += bandRows) {
+            int bandFrom = from;
+            int bandTo = Math.min(dstH, from + bandRows);
+            tasks.add(pool.submit(() ->
+                    LanczosResizer.resizeRows(source, destination, horizontal, vertical, bandFrom, bandTo)));
+        }
+        tasks.forEach(ForkJoinTask::join);
+        tiled.increment();
+    }
+}
@@ -27,4 +27,19 @@ public class CacheCleanupScheduler {
     public void run() {
         cacheCleanupAdapter.evictImageExpired();
     }
+
+    /**
+     * Applique le budget disque du cache (image.cache-max-bytes) à intervalle régulier.
+     * L'éviction LRU s'appuie sur l'index des variantes : aucun parcours du disque.
+     * L'intervalle est configurable via :
+     * image.cache-eviction-interval=30s
+     */
+    @Scheduled(
+            identity = "image-cache-budget",
+            every = "${image.cache-eviction-interval:30s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP
+    )
+    public void enforceBudget() {
+        cacheCleanupAdapter.evictOverBudget();
+    }
 }
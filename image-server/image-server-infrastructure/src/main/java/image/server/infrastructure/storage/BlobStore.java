@@ -0,0 +1,194 @@
+package image.server.infrastructure.storage;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotLinkException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Stockage adressé par contenu des originaux (mode {@code image.content-addressed}).
+ * <p>
+ * Chaque contenu distinct est stocké une seule fois sous {@code <uploads>/.blobs/ab/cd/<sha256>},
+ * le hash étant calculé pendant la copie de l'upload. Le chemin logique renvoyé au client
+ * est un lien symbolique relatif vers ce blob : le service des originaux reste inchangé.
+ * <p>
+ * Un compteur de références ({@code <sha256>.refs}) accompagne chaque blob ;
+ * le blob est supprimé quand son dernier chemin logique l'est.
+ */
+@ApplicationScoped
+public class BlobStore {
+
+    private static final Logger LOG = Logger.getLogger(BlobStore.class);
+
+    /** Dossier des blobs, à la racine des uploads. */
+    public static final String BLOB_DIRECTORY = ".blobs";
+
+    private static final Pattern BLOB_HASH = Pattern.compile("[0-9a-f]{64}");
+
+    /** Verrous par tranche de hash : l'écriture d'un blob et de son compteur est atomique. */
+    private final Object[] locks = new Object[64];
+
+    public BlobStore() {
+        for (int i = 0; i < locks.length; i++) locks[i] = new Object();
+    }
+
+    /**
+     * Copie un upload en calculant son hash, puis le rattache à son chemin logique.
+     * Un contenu déjà connu n'est pas réécrit : seul son compteur de références augmente.
+     *
+     * @param uploadBase racine des uploads
+     * @param upload     fichier temporaire reçu
+     * @param logical    chemin logique à créer (lien vers le blob)
+     * @return le hash SHA-256 du contenu
+     * @throws IOException si la copie ou la création du lien échoue
+     */
+    public String store(Path uploadBase, Path upload, Path logical) throws IOException {
+        Path blobRoot = uploadBase.resolve(BLOB_DIRECTORY);
+        Files.createDirectories(blobRoot);
+
+        MessageDigest sha256 = sha256();
+        Path tmp = Files.createTempFile(blobRoot, "upload-", ".tmp");
+        try {
+            try (InputStream in = new DigestInputStream(Files.newInputStream(upload), sha256)) {
+                Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            Path blob = blobPath(uploadBase, hash);
+
+            synchronized (lockFor(hash)) {
+                boolean duplicate = Files.exists(blob);
+                if (duplicate) {
+                    Files.delete(tmp);
+                } else {
+                    Files.createDirectories(blob.getParent());
+                    Files.move(tmp, blob, StandardCopyOption.ATOMIC_MOVE);
+                }
+
+                try {
+                    Files.createSymbolicLink(logical, logical.getParent().relativize(blob));
+                } catch (IOException | UnsupportedOperationException e) {
+                    if (!duplicate) Files.deleteIfExists(blob);
+                    throw e;
+                }
+                writeReferences(blob, readReferences(blob) + 1);
+                LOG.debugf("Blob %s stored (%s): %s", hash, duplicate ? "duplicate" : "new", logical);
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Retrouve le blob vers lequel pointe un chemin logique, sans lire le contenu.
+     *
+     * @param logical chemin logique d'un original
+     * @return le hash du blob, ou {@code null} si le chemin n'est pas un lien vers un blob
+     */
+    public String blobHashOf(Path logical) throws IOException {
+        try {
+            String hash = Files.readSymbolicLink(logical).getFileName().toString();
+            return BLOB_HASH.matcher(hash).matches() ? hash : null;
+        } catch (NotLinkException | NoSuchFileException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Supprime un chemin logique et libère sa référence sur le blob.
+     *
+     * @param uploadBase racine des uploads
+     * @param logical    lien à supprimer
+     * @param hash       hash du blob référencé
+     * @return {@code true} si c'était la dernière référence (blob supprimé)
+     */
+    public boolean release(Path uploadBase, Path logical, String hash) throws IOException {
+        Path blob = blobPath(uploadBase, hash);
+        synchronized (lockFor(hash)) {
+            Files.delete(logical);
+            long references = readReferences(blob) - 1;
+            if (references > 0) {
+                writeReferences(blob, references);
+                return false;
+            }
+            Files.deleteIfExists(referencesPath(blob));
+            Files.deleteIfExists(blob);
+            LOG.debugf("Blob %s released: no reference left.", hash);
+            return true;
+        }
+    }
+
+    /**
+     * Indique si un chemin relatif désigne le dossier des blobs, réservé au stockage.
+     * <p>
+     * Le chemin est normalisé avant la vérification : {@code ./.blobs/…} ou {@code x/../.blobs/…}
+     * sont réservés au même titre que {@code .blobs/…}. Un chemin invalide est considéré comme réservé.
+     */
+    public static boolean isReserved(String relativePath) {
+        try {
+            Path normalized = Path.of(relativePath).normalize();
+            return normalized.getNameCount() > 0 && normalized.getName(0).toString().equals(BLOB_DIRECTORY);
+        } catch (InvalidPathException e) {
+            return true;
+        }
+    }
+
+    private Path blobPath(Path uploadBase, String hash) {
+        return uploadBase.resolve(BLOB_DIRECTORY)
+                .resolve(hash.substring(0, 2))
+                .resolve(hash.substring(2, 4))
+                .resolve(hash);
+    }
+
+    private Path referencesPath(Path blob) {
+        return blob.resolveSibling(blob.getFileName() + ".refs");
+    }
+
+    private long readReferences(Path blob) throws IOException {
+        Path refs = referencesPath(blob);
+        if (!Files.exists(refs, LinkOption.NOFOLLOW_LINKS)) return 0;
+        try {
+            return Long.parseLong(Files.readString(refs).trim());
+        } catch (NumberFormatException e) {
+            // Compteur illisible : on conserve le blob tant qu'au moins une référence est libérée.
+            LOG.warnf("Unreadable reference count, assuming one reference: %s", refs);
+            return 1;
+        }
+    }
+
+    private void writeReferences(Path blob, long references) throws IOException {
+        Path refs = referencesPath(blob);
+        Path tmp = Files.createTempFile(refs.getParent(), refs.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(tmp, Long.toString(references));
+            Files.move(tmp, refs, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Integer.parseInt(hash.substring(0, 2), 16) % locks.length];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package image.server.infrastructure.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ByteRangeTest {
+
+    private static final long TOTAL = 1000;
+
+    @Test
+    void should_parse_a_closed_range() {
+        assertEquals(List.of(new ByteRange(0, 499)), ByteRange.parse("bytes=0-499", TOTAL));
+    }
+
+    @Test
+    void should_parse_a_suffix_range() {
+        assertEquals(List.of(new ByteRange(500, 999)), ByteRange.parse("bytes=-500", TOTAL));
+        assertEquals(List.of(new ByteRange(0, 999)), ByteRange.parse("bytes=-5000", TOTAL));
+    }
+
+    @Test
+    void should_parse_an_open_ended_range() {
+        assertEquals(List.of(new ByteRange(500, 999)), ByteRange.parse("bytes=500-", TOTAL));
+    }
+
+    @Test
+    void should_clamp_the_end_to_the_resource_length() {
+        assertEquals(List.of(new ByteRange(900, 999)), ByteRange.parse("bytes=900-5000", TOTAL));
+    }
+
+    @Test
+    void should_parse_multiple_ranges() {
+        assertEquals(List.of(new ByteRange(0, 99), new ByteRange(200, 299), new ByteRange(900, 999)),
+                ByteRange.parse("bytes=0-99, 200-299,-100", TOTAL));
+    }
+
+    @Test
+    void should_return_an_empty_list_when_no_range_is_satisfiable() {
+        assertEquals(List.of(), ByteRange.parse("bytes=1000-", TOTAL));
+        assertEquals(List.of(), ByteRange.parse("bytes=2000-3000", TOTAL));
+        assertEquals(List.of(), ByteRange.parse("bytes=-0", TOTAL));
+    }
+
+    @Test
+    void should_keep_only_satisfiable_ranges() {
+        assertEquals(List.of(new ByteRange(0, 9)), ByteRange.parse("bytes=0-9,5000-6000", TOTAL));
+    }
+
+    @Test
+    void should_ignore_malformed_headers() {
+        assertNull(ByteRange.parse(null, TOTAL));
+        assertNull(ByteRange.parse("items=0-10", TOTAL));
+        assertNull(ByteRange.parse("bytes=10", TOTAL));
+        assertNull(ByteRange.parse("bytes=-", TOTAL));
+        assertNull(ByteRange.parse("bytes=a-b", TOTAL));
+        assertNull(ByteRange.parse("bytes=500-100", TOTAL));
+        assertNull(ByteRange.parse("bytes=0-10", 0));
+    }
+
+    @Test
+    void should_ignore_too_many_ranges() {
+        String header = "bytes=" + "0-0,".repeat(ByteRange.MAX_RANGES) + "1-1";
+        assertNull(ByteRange.parse(header, TOTAL));
+    }
+
+    @Test
+    void should_describe_the_range() {
+        ByteRange range = new ByteRange(500, 999);
+        assertEquals(500, range.length());
+        assertEquals("bytes 500-999/1000", range.contentRange(TOTAL));
+    }
+
+    @Test
+    void should_match_if_range_when_absent_or_current() {
+        long lastModified = 1_700_000_000_123L;
+        assertTrue(ByteRange.ifRangeMatches(null, "abc", lastModified));
+        assertTrue(ByteRange.ifRangeMatches(" ", "abc", lastModified));
+        assertTrue(ByteRange.ifRangeMatches("\"abc\"", "abc", lastModified));
+        assertTrue(ByteRange.ifRangeMatches("Tue, 14 Nov 2023 22:13:20 GMT", "abc", lastModified));
+    }
+
+    @Test
+    void should_not_match_if_range_on_mismatch() {
+        long lastModified = 1_700_000_000_123L;
+        assertFalse(ByteRange.ifRangeMatches("\"other\"", "abc", lastModified));
+        assertFalse(ByteRange.ifRangeMatches("W/\"abc\"", "abc", lastModified));
+        assertFalse(ByteRange.ifRangeMatches("Tue, 14 Nov 2023 22:13:21 GMT", "abc", lastModified));
+        assertFalse(ByteRange.ifRangeMatches("not a date", "abc", lastModified));
+    }
+}
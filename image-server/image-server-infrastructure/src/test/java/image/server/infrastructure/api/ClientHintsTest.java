@@ -0,0 +1,123 @@
+package image.server.infrastructure.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClientHintsTest {
+
+    private static final int MAX_DIMENSION = 4000;
+
+    @Test
+    void should_prefer_sec_ch_headers_over_legacy_ones() {
+        ClientHints hints = hints(Map.of(
+                "Sec-CH-DPR", "2", "DPR", "3",
+                "Sec-CH-Width", "640", "Width", "320",
+                "Sec-CH-Viewport-Width", "1280", "Viewport-Width", "800"));
+
+        assertEquals(new ClientHints(2.0, 640, 1280, false), hints);
+    }
+
+    @Test
+    void should_fall_back_to_legacy_headers() {
+        assertEquals(new ClientHints(1.5, 320, 800, false),
+                hints(Map.of("DPR", "1.5", "Width", " 320 ", "Viewport-Width", "800", "Sec-CH-DPR", " ")));
+    }
+
+    @Test
+    void should_ignore_invalid_values() {
+        assertEquals(new ClientHints(null, null, null, false),
+                hints(Map.of("DPR", "abc", "Width", "-5", "Viewport-Width", "1.5")));
+        assertNull(hints(Map.of("DPR", "0")).dpr());
+        assertNull(hints(Map.of("DPR", "Infinity")).dpr());
+    }
+
+    @Test
+    void should_clamp_dpr() {
+        ClientHints hints = hints(Map.of("DPR", "10"));
+
+        assertEquals(ClientHints.MAX_DPR, hints.dpr());
+        assertEquals(new ClientHints.Size(400, null), hints.resolve(100, null, MAX_DIMENSION));
+    }
+
+    @Test
+    void should_scale_requested_dimensions_by_dpr() {
+        ClientHints hints = new ClientHints(2.0, null, null, false);
+
+        assertEquals(new ClientHints.Size(600, 400), hints.resolve(300, 200, MAX_DIMENSION));
+        assertEquals(new ClientHints.Size(null, 400), hints.resolve(null, 200, MAX_DIMENSION));
+    }
+
+    @Test
+    void should_prefer_width_over_dpr() {
+        ClientHints hints = new ClientHints(3.0, 450, null, false);
+
+        assertEquals(new ClientHints.Size(450, 300), hints.resolve(300, 200, MAX_DIMENSION));
+    }
+
+    @Test
+    void should_ignore_width_without_requested_width() {
+        ClientHints hints = new ClientHints(2.0, 450, null, false);
+
+        assertEquals(new ClientHints.Size(null, 400), hints.resolve(null, 200, MAX_DIMENSION));
+    }
+
+    @Test
+    void should_bound_width_by_viewport() {
+        ClientHints hints = new ClientHints(2.0, null, 400, false);
+
+        assertEquals(new ClientHints.Size(800, 400), hints.resolve(1000, 500, MAX_DIMENSION));
+        assertEquals(new ClientHints.Size(600, null), hints.resolve(300, null, MAX_DIMENSION));
+    }
+
+    @Test
+    void should_bound_viewport_over_width() {
+        ClientHints hints = new ClientHints(1.0, 1200, 500, false);
+
+        assertEquals(new ClientHints.Size(500, null), hints.resolve(600, null, MAX_DIMENSION));
+    }
+
+    @Test
+    void should_keep_ratio_when_capped_to_max_dimension() {
+        ClientHints hints = new ClientHints(4.0, null, null, false);
+
+        assertEquals(new ClientHints.Size(2000, 1000), hints.resolve(1000, 500, 2000));
+    }
+
+    @Test
+    void should_leave_missing_or_invalid_dimensions_untouched() {
+        ClientHints hints = new ClientHints(2.0, 450, null, false);
+
+        assertEquals(new ClientHints.Size(null, null), hints.resolve(null, null, MAX_DIMENSION));
+        assertEquals(new ClientHints.Size(0, 200), hints.resolve(0, 200, MAX_DIMENSION));
+        assertEquals(new ClientHints.Size(300, 5000), hints.resolve(300, 5000, MAX_DIMENSION));
+    }
+
+    @Test
+    void should_cap_quality_with_save_data() {
+        ClientHints hints = hints(Map.of("Save-Data", "On"));
+
+        assertTrue(hints.saveData());
+        assertEquals(50, hints.quality(null, 50));
+        assertEquals(50, hints.quality(80, 50));
+        assertEquals(30, hints.quality(30, 50));
+    }
+
+    @Test
+    void should_keep_quality_without_save_data() {
+        ClientHints hints = hints(Map.of("Save-Data", "off"));
+
+        assertFalse(hints.saveData());
+        assertNull(hints.quality(null, 50));
+        assertEquals(80, hints.quality(80, 50));
+    }
+
+    private static ClientHints hints(Map<String, String> headers) {
+        return ClientHints.from(headers::get);
+    }
+}
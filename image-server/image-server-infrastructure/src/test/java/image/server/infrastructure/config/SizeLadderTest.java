@@ -0,0 +1,98 @@
+package image.server.infrastructure.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SizeLadderTest {
+
+    private static final List<Integer> LADDER = List.of(32, 64, 128, 256, 512, 1024);
+
+    @Test
+    void should_snap_up_to_the_next_rung() {
+        SizeLadder ladder = ladder(LADDER, 5000);
+
+        assertEquals(32, ladder.snap(1));
+        assertEquals(128, ladder.snap(100));
+        assertEquals(128, ladder.snap(128));
+        assertEquals(256, ladder.snap(129));
+        assertNull(ladder.snap(null));
+    }
+
+    @Test
+    void should_cap_dimensions_above_the_top_rung() {
+        SizeLadder ladder = ladder(LADDER, 5000);
+
+        assertEquals(1024, ladder.snap(1025));
+        assertEquals(1024, ladder.snap(5000));
+    }
+
+    @Test
+    void should_leave_out_of_range_dimensions_for_validation() {
+        SizeLadder ladder = ladder(LADDER, 5000);
+
+        assertEquals(0, ladder.snap(0));
+        assertEquals(5001, ladder.snap(5001));
+    }
+
+    @Test
+    void should_leave_dimensions_unchanged_without_ladder() {
+        SizeLadder ladder = ladder(List.of(), 5000);
+
+        assertFalse(ladder.enabled());
+        assertEquals(100, ladder.snap(100));
+        assertEquals(new SizeLadder.Size(400, 300), ladder.snap(400, 300, true));
+    }
+
+    @Test
+    void should_snap_each_dimension_without_crop() {
+        SizeLadder ladder = ladder(LADDER, 5000);
+
+        assertEquals(new SizeLadder.Size(512, 512), ladder.snap(400, 300, false));
+        assertEquals(new SizeLadder.Size(512, null), ladder.snap(400, null, true));
+    }
+
+    @Test
+    void should_keep_the_requested_crop_ratio() {
+        SizeLadder ladder = ladder(LADDER, 5000);
+
+        assertEquals(new SizeLadder.Size(512, 384), ladder.snap(400, 300, true));
+        assertEquals(new SizeLadder.Size(384, 512), ladder.snap(300, 400, true));
+        assertEquals(new SizeLadder.Size(256, 256), ladder.snap(200, 200, true));
+        // Au-delà du dernier palier, le recadrage est réduit en gardant sa forme.
+        assertEquals(new SizeLadder.Size(1024, 512), ladder.snap(2000, 1000, true));
+        // Le petit côté ne descend jamais sous 1 pixel.
+        assertEquals(new SizeLadder.Size(1024, 1), ladder.snap(4000, 1, true));
+    }
+
+    @Test
+    void should_reject_rungs_outside_max_dimension() {
+        assertThrows(IllegalArgumentException.class, () -> ladder(List.of(64, 6000), 5000));
+    }
+
+    private static SizeLadder ladder(List<Integer> rungs, int maxDimension) {
+        SizeLadder ladder = new SizeLadder();
+        ladder.config = config(rungs, maxDimension);
+        ladder.init();
+        return ladder;
+    }
+
+    private static ImageConfig config(List<Integer> rungs, int maxDimension) {
+        return (ImageConfig) Proxy.newProxyInstance(
+                ImageConfig.class.getClassLoader(),
+                new Class<?>[]{ImageConfig.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "sizeLadder" -> Optional.of(rungs);
+                    case "maxDimension" -> maxDimension;
+                    case "sizeLadderRedirect" -> false;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,95 @@
+package image.server.infrastructure.imaging;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlurHashTest {
+
+    private static final String BASE83 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    @Test
+    void should_match_the_reference_hash_of_a_black_image() {
+        // Valeur produite par l'implémentation de référence pour une image noire en 4 × 3
+        assertEquals("L00000fQfQfQfQfQfQfQfQfQfQfQ", BlurHash.encode(solid(32, 24, Color.BLACK)));
+    }
+
+    @Test
+    void should_encode_the_average_color_as_dc() {
+        assertEquals("00TSUA", BlurHash.encode(solid(8, 8, Color.WHITE), 1, 1));
+        assertEquals("000000", BlurHash.encode(solid(8, 8, Color.BLACK), 1, 1));
+    }
+
+    @Test
+    void should_encode_size_flag_and_length_in_landscape() {
+        String hash = BlurHash.encode(gradient(32, 24));
+
+        assertEquals(4 + 2 * 4 * 3, hash.length());
+        assertEquals(BASE83.charAt((4 - 1) + (3 - 1) * 9), hash.charAt(0));
+        assertEquals('L', hash.charAt(0));
+        assertBase83(hash);
+    }
+
+    @Test
+    void should_encode_size_flag_and_length_in_portrait() {
+        String hash = BlurHash.encode(gradient(24, 32));
+
+        assertEquals(4 + 2 * 3 * 4, hash.length());
+        assertEquals(BASE83.charAt((3 - 1) + (4 - 1) * 9), hash.charAt(0));
+        assertBase83(hash);
+    }
+
+    @Test
+    void should_encode_custom_components() {
+        String hash = BlurHash.encode(gradient(32, 32), 9, 9);
+
+        assertEquals(4 + 2 * 9 * 9, hash.length());
+        assertEquals(BASE83.charAt(8 + 8 * 9), hash.charAt(0));
+    }
+
+    @Test
+    void should_distinguish_images() {
+        assertNotEquals(BlurHash.encode(gradient(32, 24)), BlurHash.encode(solid(32, 24, Color.BLACK)));
+        assertTrue(BlurHash.encode(gradient(32, 24)).charAt(1) != '0');
+    }
+
+    @Test
+    void should_reject_invalid_components() {
+        BufferedImage image = solid(4, 4, Color.BLACK);
+        assertThrows(IllegalArgumentException.class, () -> BlurHash.encode(image, 0, 3));
+        assertThrows(IllegalArgumentException.class, () -> BlurHash.encode(image, 4, 10));
+    }
+
+    private static void assertBase83(String hash) {
+        for (char c : hash.toCharArray()) {
+            assertTrue(BASE83.indexOf(c) >= 0);
+        }
+    }
+
+    private static BufferedImage solid(int width, int height, Color color) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(color);
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        return image;
+    }
+
+    private static BufferedImage gradient(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.RED, width, height, Color.BLUE));
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        return image;
+    }
+}
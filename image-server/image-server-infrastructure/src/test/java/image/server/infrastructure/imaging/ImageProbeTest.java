@@ -0,0 +1,123 @@
+package image.server.infrastructure.imaging;
+
+import image.server.infrastructure.imaging.ImageProbe.Format;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageProbeTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void should_probe_jpeg() throws IOException {
+        assertEquals(new ImageProbe(Format.JPEG, 37, 21), ImageProbe.probe(write("jpg", 37, 21)));
+    }
+
+    @Test
+    void should_probe_png() throws IOException {
+        assertEquals(new ImageProbe(Format.PNG, 37, 21), ImageProbe.probe(write("png", 37, 21)));
+    }
+
+    @Test
+    void should_probe_gif() throws IOException {
+        assertEquals(new ImageProbe(Format.GIF, 37, 21), ImageProbe.probe(write("gif", 37, 21)));
+    }
+
+    @Test
+    void should_probe_bmp() throws IOException {
+        assertEquals(new ImageProbe(Format.BMP, 37, 21), ImageProbe.probe(write("bmp", 37, 21)));
+    }
+
+    @Test
+    void should_probe_lossy_webp() throws IOException {
+        ByteBuffer header = webpHeader("VP8 ");
+        header.put(20, new byte[]{0, 0, 0, (byte) 0x9D, 0x01, 0x2A});
+        header.putShort(26, (short) 37).putShort(28, (short) 21);
+        assertEquals(new ImageProbe(Format.WEBP, 37, 21), ImageProbe.probe(file("lossy.webp", header)));
+    }
+
+    @Test
+    void should_probe_lossless_webp() throws IOException {
+        ByteBuffer header = webpHeader("VP8L");
+        header.put(20, (byte) 0x2F);
+        header.putInt(21, (37 - 1) | (21 - 1) << 14);
+        assertEquals(new ImageProbe(Format.WEBP, 37, 21), ImageProbe.probe(file("lossless.webp", header)));
+    }
+
+    @Test
+    void should_probe_extended_webp() throws IOException {
+        ByteBuffer header = webpHeader("VP8X");
+        header.putShort(24, (short) (5000 - 1)).put(26, (byte) 0);
+        header.putShort(27, (short) (3000 - 1)).put(29, (byte) 0);
+        assertEquals(new ImageProbe(Format.WEBP, 5000, 3000), ImageProbe.probe(file("extended.webp", header)));
+    }
+
+    @Test
+    void should_reject_truncated_files() throws IOException {
+        byte[] jpeg = Files.readAllBytes(write("jpg", 37, 21));
+        assertNull(ImageProbe.probe(file("truncated.jpg", Arrays.copyOf(jpeg, 8))));
+
+        byte[] png = Files.readAllBytes(write("png", 37, 21));
+        assertNull(ImageProbe.probe(file("truncated.png", Arrays.copyOf(png, 20))));
+    }
+
+    @Test
+    void should_reject_unknown_content() throws IOException {
+        assertNull(ImageProbe.probe(file("empty.jpg", new byte[0])));
+        assertNull(ImageProbe.probe(file("text.png", "not an image, just some plain text".getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    @Test
+    void should_detect_extension_mismatch() throws IOException {
+        Path png = write("png", 37, 21);
+        Path renamed = Files.move(png, dir.resolve("photo.jpg"));
+
+        ImageProbe probe = ImageProbe.probe(renamed);
+        assertEquals(Format.PNG, probe.format());
+        assertFalse(probe.format().matchesExtension("jpg"));
+        assertTrue(probe.format().matchesExtension("PNG"));
+        assertTrue(Format.JPEG.matchesExtension("jpeg"));
+    }
+
+    private Path write(String format, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(width / 2, height / 2, 0xFF8000);
+        Path path = dir.resolve("image-" + width + "x" + height + "." + format);
+        assertTrue(ImageIO.write(image, format, path.toFile()));
+        return path;
+    }
+
+    private Path file(String name, ByteBuffer content) throws IOException {
+        return file(name, content.array());
+    }
+
+    private Path file(String name, byte[] content) throws IOException {
+        return Files.write(dir.resolve(name), content);
+    }
+
+    private static ByteBuffer webpHeader(String chunk) {
+        ByteBuffer header = ByteBuffer.allocate(30).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(0, "RIFF".getBytes(StandardCharsets.US_ASCII));
+        header.putInt(4, 22);
+        header.put(8, "WEBP".getBytes(StandardCharsets.US_ASCII));
+        header.put(12, chunk.getBytes(StandardCharsets.US_ASCII));
+        header.putInt(16, 10);
+        return header;
+    }
+}
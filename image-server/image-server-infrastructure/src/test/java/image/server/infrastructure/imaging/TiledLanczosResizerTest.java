@@ -0,0 +1,112 @@
+package image.server.infrastructure.imaging;
+
+import image.server.infrastructure.config.ImageConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.lang.reflect.Proxy;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TiledLanczosResizerTest {
+
+    /** Écart maximal toléré par canal entre le calcul en bandes et le calcul en une passe. */
+    private static final int TOLERANCE = 1;
+
+    private TiledLanczosResizer resizer;
+
+    @BeforeEach
+    void setUp() {
+        resizer = new TiledLanczosResizer();
+        resizer.config = config(1_000_000L, 4);
+        resizer.meterRegistry = new SimpleMeterRegistry();
+        resizer.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        resizer.shutdown();
+    }
+
+    @Test
+    void should_match_single_pass_when_downscaling() {
+        assertMatchesSinglePass(noise(1200, 1000, BufferedImage.TYPE_INT_RGB), 401, 333);
+    }
+
+    @Test
+    void should_match_single_pass_with_transparency() {
+        assertMatchesSinglePass(noise(900, 1300, BufferedImage.TYPE_INT_ARGB), 300, 433);
+    }
+
+    @Test
+    void should_match_single_pass_when_upscaling() {
+        assertMatchesSinglePass(noise(120, 90, BufferedImage.TYPE_INT_RGB), 250, 301);
+    }
+
+    @Test
+    void should_match_single_pass_with_a_single_band() {
+        assertMatchesSinglePass(noise(400, 300, BufferedImage.TYPE_INT_RGB), 200, 20);
+    }
+
+    @Test
+    void should_accept_only_images_above_the_threshold() {
+        assertTrue(resizer.accepts(new BufferedImage(1000, 1000, BufferedImage.TYPE_INT_RGB)));
+        assertFalse(resizer.accepts(new BufferedImage(999, 1000, BufferedImage.TYPE_INT_RGB)));
+
+        resizer.config = config(0L, 4);
+        assertFalse(resizer.accepts(new BufferedImage(4000, 4000, BufferedImage.TYPE_INT_RGB)));
+    }
+
+    private void assertMatchesSinglePass(BufferedImage source, int width, int height) {
+        BufferedImage expected = new BufferedImage(width, height, source.getType());
+        new LanczosResizer().resize(source, expected);
+
+        BufferedImage actual = new BufferedImage(width, height, source.getType());
+        resizer.resize(source, actual);
+
+        int maxDelta = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int e = expected.getRGB(x, y);
+                int a = actual.getRGB(x, y);
+                for (int shift = 0; shift < 32; shift += 8) {
+                    maxDelta = Math.max(maxDelta, Math.abs(((e >>> shift) & 0xFF) - ((a >>> shift) & 0xFF)));
+                }
+            }
+        }
+        assertTrue(maxDelta <= TOLERANCE, "max channel difference: " + maxDelta);
+    }
+
+    /**
+     * Bruit déterministe superposé à un dégradé : les hautes fréquences font ressortir
+     * toute erreur de recouvrement aux limites des bandes.
+     */
+    private static BufferedImage noise(int width, int height, int type) {
+        Random random = new Random(42);
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int alpha = 128 + random.nextInt(128);
+                int red = (x * 255 / width + random.nextInt(64)) & 0xFF;
+                int green = (y * 255 / height + random.nextInt(64)) & 0xFF;
+                int blue = random.nextInt(256);
+                image.setRGB(x, y, alpha << 24 | red << 16 | green << 8 | blue);
+            }
+        }
+        return image;
+    }
+
+    private static ImageConfig config(long minPixels, int parallelism) {
+        return (ImageConfig) Proxy.newProxyInstance(ImageConfig.class.getClassLoader(), new Class<?>[]{ImageConfig.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "tiledResizeMinPixels" -> minPixels;
+                    case "tiledResizeParallelism" -> parallelism;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,31 @@
+package image.server.infrastructure.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlobStoreTest {
+
+    @Test
+    void should_reserve_the_blob_directory() {
+        assertTrue(BlobStore.isReserved(".blobs"));
+        assertTrue(BlobStore.isReserved(".blobs/ab/cd/0123"));
+        assertTrue(BlobStore.isReserved("/.blobs/ab"));
+    }
+
+    @Test
+    void should_reserve_non_normalized_blob_paths() {
+        assertTrue(BlobStore.isReserved("./.blobs/ab/cd/0123"));
+        assertTrue(BlobStore.isReserved("x/../.blobs/ab/cd/0123.refs"));
+        assertTrue(BlobStore.isReserved(".blobs/../.blobs/ab"));
+    }
+
+    @Test
+    void should_not_reserve_regular_paths() {
+        assertFalse(BlobStore.isReserved("avatars/alice.jpg"));
+        assertFalse(BlobStore.isReserved(".blobsy/alice.jpg"));
+        assertFalse(BlobStore.isReserved("avatars/.blobs/alice.jpg"));
+        assertFalse(BlobStore.isReserved(""));
+    }
+}